@@ -0,0 +1,45 @@
+package com.catalogservice.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Constructor validation for every created or imported product; the rejected case includes the cost of
+ * the {@link IllegalArgumentException} and its stack trace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductBenchmark {
+    private final String name = " Phone Pro Max ";
+    private final BigDecimal price = new BigDecimal("999.90");
+    private final BigDecimal negativePrice = new BigDecimal("-1");
+    private final String sku = " sku-12345 ";
+
+    @Benchmark
+    public Product constructValid() {
+        return new Product(name, "A phone", price, 12, sku);
+    }
+
+    @Benchmark
+    public Object constructRejected() {
+        try {
+            return new Product(name, "A phone", negativePrice, 12, sku);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
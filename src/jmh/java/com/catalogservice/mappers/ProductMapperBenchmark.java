@@ -0,0 +1,47 @@
+package com.catalogservice.mappers;
+
+import com.catalogservice.dto.ProductResponseDto;
+import com.catalogservice.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping, done once per product on every read that misses the product cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+    private final ProductMapper mapper = new ProductMapper();
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        product = new Product("Phone Pro Max", "A phone", new BigDecimal("999.90"), 12, "SKU-12345");
+        ReflectionTestUtils.setField(product, "id", 42L);
+        ReflectionTestUtils.setField(product, "version", 3L);
+        ReflectionTestUtils.setField(product, "createdAt", Instant.parse("2025-01-01T10:00:00Z"));
+        ReflectionTestUtils.setField(product, "updatedAt", Instant.parse("2025-01-02T10:00:00Z"));
+    }
+
+    @Benchmark
+    public ProductResponseDto mapToProductResponseDto() {
+        return mapper.mapToProductResponseDto(product);
+    }
+}
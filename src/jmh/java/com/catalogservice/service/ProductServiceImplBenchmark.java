@@ -0,0 +1,44 @@
+package com.catalogservice.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sort validation run by every list and search request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceImplBenchmark {
+    private Sort unsorted = Sort.unsorted();
+    private Sort single = Sort.by(Sort.Direction.DESC, "price");
+    private Sort multiple = Sort.by("name").and(Sort.by(Sort.Direction.DESC, "createdAt")).and(Sort.by("sku"));
+
+    @Benchmark
+    public Sort validationSortUnsorted() {
+        return ProductServiceImpl.validationSort(unsorted);
+    }
+
+    @Benchmark
+    public Sort validationSortSingle() {
+        return ProductServiceImpl.validationSort(single);
+    }
+
+    @Benchmark
+    public Sort validationSortMultiple() {
+        return ProductServiceImpl.validationSort(multiple);
+    }
+}
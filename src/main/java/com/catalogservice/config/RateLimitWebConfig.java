@@ -0,0 +1,22 @@
+package com.catalogservice.config;
+
+import com.catalogservice.security.ratelimit.SearchRateLimitInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Applies the per-client search limit of {@link com.catalogservice.security.ratelimit.RequestRateLimiter}
+ * to both search endpoints and the search facets, before their arguments are bound.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RateLimitWebConfig implements WebMvcConfigurer {
+    private final SearchRateLimitInterceptor searchRateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(searchRateLimitInterceptor).addPathPatterns("/api/v1/products/search", "/api/v1/products/facets");
+    }
+}
@@ -0,0 +1,30 @@
+package com.catalogservice.config.replica;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends connections of read-only transactions to the {@link ReplicaDataSource} and all others to the primary.
+ * The physical connection is only taken at the first statement, once the transaction manager has marked the
+ * connection read-only; {@code unwrap} reaches the primary pool, so its Hikari metrics stay as before.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private final DataSource primary;
+    private final ReplicaDataSource replicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaDataSource replicas) {
+        super(primary);
+        setReadOnlyDataSource(replicas);
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public void close() throws Exception {
+        replicas.close();
+        if(primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.catalogservice.config.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Pins the reads of a request to the primary when it is itself a write (any method but GET, HEAD and OPTIONS) or
+ * its client made a write less than {@code window} ago, so a client always sees its own changes even while the
+ * replicas lag behind.
+ * <p>
+ * The client carries the time of its last write itself: every write sets the {@value #LAST_WRITE_COOKIE} cookie,
+ * which lives for {@code window}, and clients that keep no cookies can echo it in the {@value #LAST_WRITE_HEADER}
+ * header. The window therefore holds on every node and for each client separately, whatever address the load
+ * balancer shows.
+ * <p>
+ * Requests whose reads may go to a replica carry the {@link #REPLICA_READS_ATTRIBUTE} request attribute, so list
+ * endpoints leave out catalog tags that a lagging replica could not honour.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String REPLICA_READS_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".REPLICA_READS";
+    public static final String LAST_WRITE_COOKIE = "catalog-last-write";
+    public static final String LAST_WRITE_HEADER = "Catalog-Last-Write";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration window) {
+        this(window, Clock.systemUTC());
+    }
+
+    ReadYourWritesFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = clock.millis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if(write) {
+            // set up front: the response may be committed by the time the chain returns
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(LAST_WRITE_COOKIE, Long.toString(now))
+                    .path("/")
+                    .maxAge(window)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+            response.setHeader(LAST_WRITE_HEADER, Long.toString(now));
+        }
+        boolean pinned = write || wroteRecently(request, now);
+        if(!pinned) {
+            request.setAttribute(REPLICA_READS_ATTRIBUTE, Boolean.TRUE);
+        }
+        boolean previous = ReplicaDataSource.pinToPrimary(pinned);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaDataSource.pinToPrimary(previous);
+        }
+    }
+
+    private boolean wroteRecently(HttpServletRequest request, long now) {
+        String lastWrite = request.getHeader(LAST_WRITE_HEADER);
+        if(lastWrite == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if(LAST_WRITE_COOKIE.equals(cookie.getName())) {
+                    lastWrite = cookie.getValue();
+                    break;
+                }
+            }
+        }
+        if(lastWrite == null) {
+            return false;
+        }
+        try {
+            long age = now - Long.parseLong(lastWrite.trim());
+            return age >= 0 && age < window.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
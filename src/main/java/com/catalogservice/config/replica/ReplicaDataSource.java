@@ -0,0 +1,151 @@
+package com.catalogservice.config.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out read-only connections from the replica pools in turn and from the primary when the calling thread is
+ * pinned to it (see {@link ReadYourWritesFilter}) or no replica can give a connection.
+ * <p>
+ * A replica whose pool fails to give a connection is skipped for {@code retryAfter}; the next read after that
+ * tries it again.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long retryAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter failoverReads;
+    private final Counter failures;
+
+    public ReplicaDataSource(DataSource primary, Map<String, DataSource> replicasByName, Duration retryAfter,
+                             MeterRegistry meterRegistry) {
+        if(replicasByName.isEmpty()) {
+            throw new IllegalArgumentException("at least one replica is required");
+        }
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicasByName.size());
+        replicasByName.forEach((name, dataSource) -> replicas.add(new Replica(name, dataSource)));
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.replicaReads = Counter.builder("datasource.reads").tag("target", "replica").tag("reason", "read_only")
+                .register(meterRegistry);
+        this.pinnedReads = Counter.builder("datasource.reads").tag("target", "primary").tag("reason", "read_your_writes")
+                .register(meterRegistry);
+        this.failoverReads = Counter.builder("datasource.reads").tag("target", "primary").tag("reason", "replicas_unavailable")
+                .register(meterRegistry);
+        this.failures = Counter.builder("datasource.replica.failures").register(meterRegistry);
+        Gauge.builder("datasource.replicas.healthy", this, ReplicaDataSource::healthyReplicas).register(meterRegistry);
+    }
+
+    /**
+     * Sets whether read-only transactions of the current thread go to the primary and returns the previous setting.
+     */
+    static boolean pinToPrimary(boolean pinned) {
+        boolean previous = isPinnedToPrimary();
+        if(pinned) {
+            PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        } else {
+            PINNED_TO_PRIMARY.remove();
+        }
+        return previous;
+    }
+
+    static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    /**
+     * Routed like {@link #getConnection()}; the credentials are passed to whichever pool serves the read.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        if(isPinnedToPrimary()) {
+            pinnedReads.increment();
+            return opener.open(primary);
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if(!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                Connection connection = opener.open(replica.dataSource);
+                if(replica.retryAt != 0) {
+                    replica.retryAt = 0;
+                    log.info("REPLICA_RECOVERED replica={}", replica.name);
+                }
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.retryAt = System.nanoTime() + retryAfterNanos;
+                failures.increment();
+                log.warn("REPLICA_UNAVAILABLE replica={} retryInMs={} msg={}",
+                        replica.name, retryAfterNanos / 1_000_000, e.getMessage());
+            }
+        }
+        failoverReads.increment();
+        return opener.open(primary);
+    }
+
+    long healthyReplicas() {
+        return replicas.stream().filter(Replica::isAvailable).count();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if(replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long retryAt;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable() {
+            long until = retryAt;
+            return until == 0 || System.nanoTime() - until >= 0;
+        }
+    }
+}
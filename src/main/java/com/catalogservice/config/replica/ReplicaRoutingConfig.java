@@ -0,0 +1,71 @@
+package com.catalogservice.config.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured {@link DataSource} with a {@link ReadWriteRoutingDataSource} when
+ * {@code catalog.datasource.replicas.enabled=true}: the primary pool is still built from {@code spring.datasource.*},
+ * and one read-only pool is opened per URL in {@code catalog.datasource.replicas.urls}, with the primary's credentials
+ * unless {@code catalog.datasource.replicas.username}/{@code password} are set.
+ */
+@Configuration
+@ConditionalOnBooleanProperty(name = "catalog.datasource.replicas.enabled")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                                 @Value("${catalog.datasource.replicas.urls}") String[] urls,
+                                                 @Value("${catalog.datasource.replicas.username:}") String username,
+                                                 @Value("${catalog.datasource.replicas.password:}") String password,
+                                                 @Value("${catalog.datasource.replicas.pool-size:10}") int poolSize,
+                                                 @Value("${catalog.datasource.replicas.connection-timeout:250ms}") Duration connectionTimeout,
+                                                 @Value("${catalog.datasource.replicas.retry-after:5s}") Duration retryAfter,
+                                                 MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if(StringUtils.hasText(properties.getName())) {
+            primary.setPoolName(properties.getName());
+        }
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls[i].trim());
+            replica.setUsername(StringUtils.hasText(username) ? username : properties.determineUsername());
+            replica.setPassword(StringUtils.hasText(password) ? password : properties.determinePassword());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, new ReplicaDataSource(primary, replicas, retryAfter, meterRegistry));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${catalog.datasource.replicas.read-your-writes-window:2s}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
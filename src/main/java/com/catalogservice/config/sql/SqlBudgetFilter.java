@@ -0,0 +1,93 @@
+package com.catalogservice.config.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the JDBC statements and connection hold time of each request, including work done after the handler
+ * returned (open-session-in-view lazy loads during serialization), and logs {@code SQL_BUDGET_EXCEEDED} when a request
+ * prepares more than {@code statements} statements, prepares one SQL string more than {@code repeated-statements}
+ * times, or holds connections longer than {@code connection-hold} in total.
+ */
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    private final int statementBudget;
+    private final int repeatBudget;
+    private final Duration connectionHoldBudget;
+    private final DistributionSummary statements;
+    private final Timer connectionHold;
+    private final Counter statementsExceeded;
+    private final Counter repeatsExceeded;
+    private final Counter connectionHoldExceeded;
+
+    public SqlBudgetFilter(int statementBudget, int repeatBudget, Duration connectionHoldBudget, MeterRegistry meterRegistry) {
+        this.statementBudget = statementBudget;
+        this.repeatBudget = repeatBudget;
+        this.connectionHoldBudget = connectionHoldBudget;
+        this.statements = DistributionSummary.builder("sql.request.statements").register(meterRegistry);
+        this.connectionHold = Timer.builder("sql.request.connection.hold").register(meterRegistry);
+        this.statementsExceeded = Counter.builder("sql.budget.exceeded").tag("reason", "statements").register(meterRegistry);
+        this.repeatsExceeded = Counter.builder("sql.budget.exceeded").tag("reason", "repeated_statements").register(meterRegistry);
+        this.connectionHoldExceeded = Counter.builder("sql.budget.exceeded").tag("reason", "connection_hold").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatistics sql = SqlStatistics.start()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                check(request, sql);
+            }
+        }
+    }
+
+    private void check(HttpServletRequest request, SqlStatistics sql) {
+        if(sql.connections() == 0 && sql.statements() == 0) {
+            return;
+        }
+        statements.record(sql.statements());
+        connectionHold.record(sql.connectionHold());
+        List<String> exceeded = new ArrayList<>(3);
+        if(sql.statements() > statementBudget) {
+            statementsExceeded.increment();
+            exceeded.add("statements");
+        }
+        if(sql.maxRepeats() > repeatBudget) {
+            repeatsExceeded.increment();
+            exceeded.add("repeated_statements");
+        }
+        if(sql.connectionHold().compareTo(connectionHoldBudget) > 0) {
+            connectionHoldExceeded.increment();
+            exceeded.add("connection_hold");
+        }
+        if(!exceeded.isEmpty()) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            log.warn("SQL_BUDGET_EXCEEDED reasons={} method={} path={} statements={} maxRepeats={} connections={} connectionHoldMs={}",
+                    exceeded, request.getMethod(), pattern != null ? pattern : request.getRequestURI(), sql.statements(),
+                    sql.maxRepeats(), sql.connections(), sql.connectionHold().toMillis());
+            if(sql.maxRepeats() > repeatBudget && log.isDebugEnabled()) {
+                sql.statementsBySql().forEach((statement, count) -> {
+                    if(count > repeatBudget) {
+                        log.debug("SQL_BUDGET_REPEATED count={} sql={}", count, statement);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.catalogservice.config.sql;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC statements and connection hold time recorded on the current thread while a scope is open.
+ * {@link SqlBudgetFilter} opens one per HTTP request; tests open their own to pin the query count of a call:
+ * <pre>{@code
+ * try (SqlStatistics sql = SqlStatistics.start()) {
+ *     mockMvc.perform(delete("/api/v1/products/1"));
+ *     assertThat(sql.statements()).isEqualTo(2);
+ * }
+ * }</pre>
+ * Scopes nest: every event is recorded in the innermost scope and all scopes around it.
+ * Statements are counted when prepared, so a JDBC batch counts once, like the round trip it is.
+ */
+public final class SqlStatistics implements AutoCloseable {
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatistics parent;
+    private final Map<String, Integer> statementsBySql = new HashMap<>();
+    private int statements;
+    private int connections;
+    private long connectionHoldNanos;
+
+    private SqlStatistics(SqlStatistics parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void recordStatement(String sql) {
+        for (SqlStatistics statistics = CURRENT.get(); statistics != null; statistics = statistics.parent) {
+            statistics.statements++;
+            statistics.statementsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void recordConnection(long holdNanos) {
+        for (SqlStatistics statistics = CURRENT.get(); statistics != null; statistics = statistics.parent) {
+            statistics.connections++;
+            statistics.connectionHoldNanos += holdNanos;
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    /**
+     * How often each SQL string was prepared, keyed by the SQL with its {@code ?} placeholders.
+     */
+    public Map<String, Integer> statementsBySql() {
+        return Collections.unmodifiableMap(statementsBySql);
+    }
+
+    /**
+     * Highest number of times a single SQL string was prepared; a value growing with the result size points at N+1 loading.
+     */
+    public int maxRepeats() {
+        return statementsBySql.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * Connections closed (returned to the pool) while the scope was open.
+     */
+    public int connections() {
+        return connections;
+    }
+
+    public Duration connectionHold() {
+        return Duration.ofNanos(connectionHoldNanos);
+    }
+
+    @Override
+    public void close() {
+        if(CURRENT.get() == this) {
+            if(parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.catalogservice.config.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application {@link DataSource} in a {@link SqlTrackingDataSource} and checks every request against the
+ * {@code catalog.sql.budget.*} limits. {@code catalog.sql.tracking.enabled=false} turns both off.
+ */
+@Configuration
+@ConditionalOnBooleanProperty(name = "catalog.sql.tracking.enabled", matchIfMissing = true)
+public class SqlTrackingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlTrackingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(bean instanceof DataSource dataSource && !(bean instanceof SqlTrackingDataSource)) {
+                    return new SqlTrackingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(@Value("${catalog.sql.budget.statements:10}") int statements,
+                                                                   @Value("${catalog.sql.budget.repeated-statements:3}") int repeatedStatements,
+                                                                   @Value("${catalog.sql.budget.connection-hold:250ms}") Duration connectionHold,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlBudgetFilter> registration =
+                new FilterRegistrationBean<>(new SqlBudgetFilter(statements, repeatedStatements, connectionHold, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,76 @@
+package com.catalogservice.config.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Reports every statement prepared on its connections and how long each connection was held, from
+ * {@code getConnection()} to {@code close()}, to the {@link SqlStatistics} of the calling thread.
+ * Covers Hibernate and {@code JdbcTemplate} alike; everything else is passed through, including {@code unwrap}.
+ * {@link #close()} closes the wrapped pool, since the container looks for a shutdown method on this wrapper.
+ */
+public class SqlTrackingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public SqlTrackingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if(getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection track(Connection connection) {
+        long acquiredAt = System.nanoTime();
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(SqlTrackingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "prepareStatement", "prepareCall" -> SqlStatistics.recordStatement((String) args[0]);
+                        case "createStatement" -> SqlStatistics.recordStatement("<statement>");
+                        case "close" -> {
+                            if(!closed[0]) {
+                                closed[0] = true;
+                                SqlStatistics.recordConnection(System.nanoTime() - acquiredAt);
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.catalogservice.controller;
+
+import com.catalogservice.exceptions.PreconditionFailedException;
+
+/**
+ * Entity tags of product resources: strong {@code "<id>-<version>"} for a single product
+ * and weak {@code W/"catalog-<revision>"} for list pages.
+ */
+final class ProductEtags {
+
+    private ProductEtags() {
+    }
+
+    static String of(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    static String catalog(String revision) {
+        return "W/\"catalog-" + revision + "\"";
+    }
+
+    /**
+     * Returns the product version an {@code If-Match} header requires, or null if it accepts any version.
+     * Only strong tags of this product can match; the first of them is used.
+     */
+    static Long expectedVersion(String ifMatch, Long id) {
+        if(ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if(tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    return Long.valueOf(tag.substring(prefix.length(), tag.length() - 1));
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match product " + id);
+    }
+}
@@ -1,33 +1,70 @@
 package com.catalogservice.controller;
 
+import com.catalogservice.config.replica.ReadYourWritesFilter;
+import com.catalogservice.dto.BatchCreateResponseDto;
+import com.catalogservice.dto.CatalogAggregatesDto;
+import com.catalogservice.dto.CursorPageResponseDto;
 import com.catalogservice.dto.ErrorResponseDto;
+import com.catalogservice.dto.ImportReportDto;
+import com.catalogservice.dto.PriceFacetsDto;
 import com.catalogservice.dto.ProductCreateRequestDto;
 import com.catalogservice.dto.ProductResponseDto;
 import com.catalogservice.dto.ProductUpdateRequestDto;
+import com.catalogservice.dto.StockAdjustmentRequestDto;
+import com.catalogservice.dto.StockBulkAdjustmentRequestDto;
+import com.catalogservice.dto.StockResponseDto;
 import com.catalogservice.service.ProductService;
+import com.catalogservice.service.cache.CatalogRevision;
+import com.catalogservice.service.count.CountMode;
+import com.catalogservice.service.count.CountedSlice;
+import com.catalogservice.service.export.ExportFormat;
+import com.catalogservice.service.export.ProductExporter;
+import com.catalogservice.service.fields.ProductFields;
+import com.catalogservice.service.filter.ProductFilter;
+import com.catalogservice.service.imports.ImportFormat;
+import com.catalogservice.service.imports.ProductImporter;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
 
 @Tag(name = "Products", description = "Каталог товаров")
 @RestController
 @RequestMapping("api/v1/products")
 @RequiredArgsConstructor
 public class ProductRestController {
+    private static final String TOTAL_COUNT_MODE_HEADER = "X-Total-Count-Mode";
+    private static final String FIELDS_DESCRIPTION = "поля через запятую, например id,sku,name,price,stock; "
+            + "только из id, sku, name, price, stock, version читаются без загрузки сущностей";
 
     private final ProductService productService;
+    private final CatalogRevision catalogRevision;
+    private final ProductExporter productExporter;
+    private final ProductImporter productImporter;
 
     @PostMapping
     @Operation(summary = "Создать продукт", description = "SKU уникален; в Location вернётся URI созданного ресурса")
@@ -41,76 +78,360 @@ public class ProductRestController {
     })
     public ResponseEntity<ProductResponseDto> createProduct(@RequestBody @Valid ProductCreateRequestDto dto) {
         ProductResponseDto createdProduct = productService.createProduct(dto);
-        return ResponseEntity.created(URI.create("/api/v1/products/" + createdProduct.getId())).body(createdProduct);
+        return ResponseEntity.created(URI.create("/api/v1/products/" + createdProduct.getId()))
+                .eTag(ProductEtags.of(createdProduct.getId(), createdProduct.getVersion()))
+                .body(createdProduct);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Создать продукты пачкой",
+            description = "До 1000 продуктов за запрос; результат по каждому элементу в порядке запроса, включая дубликаты SKU")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok",
+                    content = @Content(schema = @Schema(implementation = BatchCreateResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Bad Request пустой или слишком большой список",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+    })
+    public ResponseEntity<BatchCreateResponseDto> createProducts(@RequestBody List<ProductCreateRequestDto> dtos) {
+        BatchCreateResponseDto createdProducts = productService.createProducts(dtos);
+        return ResponseEntity.ok(createdProducts);
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv", "application/octet-stream"})
+    @Operation(summary = "Импортировать продукты потоком",
+            description = "format=ndjson|csv; upsert по SKU порциями, каждая порция в своей транзакции; невалидные строки попадают в отчёт")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok",
+                    content = @Content(schema = @Schema(implementation = ImportReportDto.class))),
+            @ApiResponse(responseCode = "400", description = "Bad Request неверный format/нет обязательной колонки CSV/"
+                    + "IMPORT_ABORTED поток не дочитан (например, незакрытая кавычка), в details счётчики закоммиченных порций",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+    })
+    public ResponseEntity<ImportReportDto> importProducts(@Parameter(description = "ndjson | csv")
+                                                          @RequestParam(name = "format", defaultValue = "ndjson") String format,
+                                                          InputStream body) {
+        ImportReportDto report = productImporter.importProducts(ImportFormat.fromParam(format), body);
+        return ResponseEntity.ok(report);
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Получить продукт по id")
+    @Operation(summary = "Получить продукт по id", description = "ETag строится из id и version; при совпадении If-None-Match вернётся 304")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Ok", content = @Content(schema = @Schema(implementation = ProductResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Not Modified"),
             @ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
 
     })
-    public ResponseEntity<ProductResponseDto> getProduct(@PathVariable Long id) {
+    public ResponseEntity<ProductResponseDto> getProduct(@PathVariable Long id, WebRequest webRequest) {
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(ProductEtags.of(id, productService.getVersionById(id)))) {
+            return null;
+        }
         ProductResponseDto obtainedProduct = productService.getById(id);
-        return ResponseEntity.ok(obtainedProduct);
+        return ResponseEntity.ok()
+                .eTag(ProductEtags.of(obtainedProduct.getId(), obtainedProduct.getVersion()))
+                .body(obtainedProduct);
     }
 
     @GetMapping
-    @Operation(summary = "Получить список продуктов")
+    @Operation(summary = "Получить список продуктов",
+            description = "count=exact|estimated|none; режим, посчитавший totalElements, вернётся в заголовке " + TOTAL_COUNT_MODE_HEADER
+                    + "; фильтры minPrice, maxPrice, inStock, createdAfter, createdBefore, skuPrefix комбинируются через И, "
+                    + "с фильтрами count=estimated считается точно")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Ok"),
-            @ApiResponse(responseCode = "400", description = "Bad Request лимит size/неверный sort",
+            @ApiResponse(responseCode = "400", description = "Bad Request лимит size/неверный sort/неверный count/неверный fields/неверный фильтр",
             content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
 
     })
-    public ResponseEntity<Page<ProductResponseDto>> getProducts(@ParameterObject Pageable pageable) {
+    public ResponseEntity<Slice<?>> getProducts(@ParameterObject Pageable pageable,
+                                                @Parameter(description = "exact | estimated | none")
+                                                @RequestParam(name = "count", defaultValue = "exact") String count,
+                                                @Parameter(description = FIELDS_DESCRIPTION)
+                                                @RequestParam(name = "fields", required = false) String fields,
+                                                @Parameter(description = "цена от (включительно)")
+                                                @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+                                                @Parameter(description = "цена до (включительно)")
+                                                @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+                                                @Parameter(description = "true — stock > 0, false — stock = 0")
+                                                @RequestParam(name = "inStock", required = false) Boolean inStock,
+                                                @Parameter(description = "создан не раньше, ISO-8601, например 2025-01-01T00:00:00Z")
+                                                @RequestParam(name = "createdAfter", required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdAfter,
+                                                @Parameter(description = "создан раньше (не включительно), ISO-8601")
+                                                @RequestParam(name = "createdBefore", required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdBefore,
+                                                @Parameter(description = "начало SKU, без учёта регистра")
+                                                @RequestParam(name = "skuPrefix", required = false) String skuPrefix,
+                                                WebRequest webRequest) {
         if(pageable.getPageSize() > 100) {
             throw new IllegalArgumentException("size must be <= 100");
         }
-       Page<ProductResponseDto> obtainedProducts = productService.getAll(pageable);
-       return ResponseEntity.ok(obtainedProducts);
+        ProductFilter filter = ProductFilter.fromParams(minPrice, maxPrice, inStock, createdAfter, createdBefore, skuPrefix);
+        String eTag = catalogETag(webRequest);
+        if(eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+       CountedSlice<?> obtainedProducts = fields == null
+               ? productService.getAll(filter, pageable, CountMode.fromParam(count))
+               : productService.getAll(filter, pageable, CountMode.fromParam(count), ProductFields.fromParam(fields));
+       return ResponseEntity.ok()
+               .eTag(eTag)
+               .header(TOTAL_COUNT_MODE_HEADER, obtainedProducts.countMode().toParam())
+               .body(obtainedProducts.slice());
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Выгрузить весь каталог",
+            description = "format=ndjson|csv; все продукты по возрастанию id одним потоковым ответом")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok"),
+            @ApiResponse(responseCode = "400", description = "Bad Request неверный format",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+
+    })
+    public void exportProducts(@Parameter(description = "ndjson | csv")
+                               @RequestParam(name = "format", defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("products." + exportFormat.fileExtension())
+                .build()
+                .toString());
+        productExporter.export(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/aggregates")
+    @Operation(summary = "Сводка по каталогу",
+            description = "число продуктов, нет в наличии, суммарный остаток и его стоимость, гистограмма по цене; "
+                    + "считается в памяти и обновляется после каждого коммита")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok", content = @Content(schema = @Schema(implementation = CatalogAggregatesDto.class))),
+            @ApiResponse(responseCode = "503", description = "AGGREGATES_NOT_READY сводка загружается или устарела, см. Retry-After",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+
+    })
+    public ResponseEntity<CatalogAggregatesDto> getAggregates() {
+        return ResponseEntity.ok(productService.getAggregates());
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Фасеты по цене для поиска по названию",
+            description = "число найденных продуктов по ценовым корзинам, те же корзины, что в /aggregates; "
+                    + "считается одним групповым запросом в БД")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok", content = @Content(schema = @Schema(implementation = PriceFacetsDto.class))),
+            @ApiResponse(responseCode = "400", description = "Bad Request неверный query",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "429", description = "RATE_LIMITED лимит поисковых запросов для клиента, см. Retry-After",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+
+    })
+    public ResponseEntity<PriceFacetsDto> getPriceFacets(@RequestParam("query") String query) {
+        return ResponseEntity.ok(productService.getPriceFacets(query));
+    }
+
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Получить список продуктов по курсору",
+            description = "Keyset-пагинация без COUNT: пустой cursor — первая страница, далее nextCursor из ответа; "
+                    + "фильтры те же, что у списка, и передаются с каждой страницей; fields не поддерживается")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok"),
+            @ApiResponse(responseCode = "400", description = "Bad Request лимит size/неверный sort/неверный cursor/неверный фильтр/fields с cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+
+    })
+    public ResponseEntity<CursorPageResponseDto<ProductResponseDto>> getProductsByCursor(@RequestParam("cursor") String cursor,
+                                                                                         @RequestParam(name = "size", defaultValue = "20") int size,
+                                                                                         @ParameterObject Sort sort,
+                                                                                         @RequestParam(name = "fields", required = false) String fields,
+                                                                                         @Parameter(description = "цена от (включительно)")
+                                                                                         @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+                                                                                         @Parameter(description = "цена до (включительно)")
+                                                                                         @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+                                                                                         @Parameter(description = "true — stock > 0, false — stock = 0")
+                                                                                         @RequestParam(name = "inStock", required = false) Boolean inStock,
+                                                                                         @Parameter(description = "создан не раньше, ISO-8601, например 2025-01-01T00:00:00Z")
+                                                                                         @RequestParam(name = "createdAfter", required = false)
+                                                                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdAfter,
+                                                                                         @Parameter(description = "создан раньше (не включительно), ISO-8601")
+                                                                                         @RequestParam(name = "createdBefore", required = false)
+                                                                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdBefore,
+                                                                                         @Parameter(description = "начало SKU, без учёта регистра")
+                                                                                         @RequestParam(name = "skuPrefix", required = false) String skuPrefix,
+                                                                                         WebRequest webRequest) {
+        validationCursorSize(size);
+        validationCursorFields(fields);
+        ProductFilter filter = ProductFilter.fromParams(minPrice, maxPrice, inStock, createdAfter, createdBefore, skuPrefix);
+        String eTag = catalogETag(webRequest);
+        if(eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        CursorPageResponseDto<ProductResponseDto> obtainedProducts = productService.getAllByCursor(filter, cursor, size, sort);
+        return ResponseEntity.ok().eTag(eTag).body(obtainedProducts);
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Получить список продуктов")
+    @Operation(summary = "Получить список продуктов",
+            description = "count=exact|estimated|none; режим, посчитавший totalElements, вернётся в заголовке " + TOTAL_COUNT_MODE_HEADER)
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Ok"),
-            @ApiResponse(responseCode = "400", description = "Bad Request лимит size/неверный sort",
+            @ApiResponse(responseCode = "400", description = "Bad Request лимит size/неверный sort/неверный count/неверный fields",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "429", description = "RATE_LIMITED лимит поисковых запросов для клиента, см. Retry-After",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
 
     })
-    public ResponseEntity<Page<ProductResponseDto>> getProductsSearchByName(@RequestParam("query") String query, @ParameterObject Pageable  pageable) {
+    public ResponseEntity<Slice<?>> getProductsSearchByName(@RequestParam("query") String query, @ParameterObject Pageable  pageable,
+                                                            @Parameter(description = "exact | estimated | none")
+                                                            @RequestParam(name = "count", defaultValue = "exact") String count,
+                                                            @Parameter(description = "сортировка по похожести названия на query (без sort)")
+                                                            @RequestParam(name = "rank", defaultValue = "false") boolean rank,
+                                                            @Parameter(description = FIELDS_DESCRIPTION)
+                                                            @RequestParam(name = "fields", required = false) String fields,
+                                                            WebRequest webRequest) {
         if(pageable.getPageSize() > 100) {
             throw new IllegalArgumentException("size must be <= 100");
         }
-        Page<ProductResponseDto> obtainedProducts = productService.searchByName(query, pageable);
-        return ResponseEntity.ok(obtainedProducts);
+        String eTag = catalogETag(webRequest);
+        if(eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        ProductFields productFields = fields == null ? null : ProductFields.fromParam(fields);
+        CountedSlice<?> obtainedProducts;
+        if(rank) {
+            CountedSlice<ProductResponseDto> ranked = productService.searchByNameRanked(query, pageable, CountMode.fromParam(count));
+            obtainedProducts = productFields == null
+                    ? ranked
+                    : new CountedSlice<>(ranked.slice().map(productFields::select), ranked.countMode());
+        } else {
+            obtainedProducts = productFields == null
+                    ? productService.searchByName(query, pageable, CountMode.fromParam(count))
+                    : productService.searchByName(query, pageable, CountMode.fromParam(count), productFields);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .header(TOTAL_COUNT_MODE_HEADER, obtainedProducts.countMode().toParam())
+                .body(obtainedProducts.slice());
+    }
+
+    @GetMapping(value = "/search", params = "cursor")
+    @Operation(summary = "Поиск продуктов по курсору",
+            description = "Keyset-пагинация без COUNT: пустой cursor — первая страница, далее nextCursor из ответа; fields не поддерживается")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok"),
+            @ApiResponse(responseCode = "400", description = "Bad Request лимит size/неверный sort/неверный cursor/fields с cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "429", description = "RATE_LIMITED лимит поисковых запросов для клиента, см. Retry-After",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+
+    })
+    public ResponseEntity<CursorPageResponseDto<ProductResponseDto>> getProductsSearchByNameByCursor(@RequestParam("query") String query,
+                                                                                                     @RequestParam("cursor") String cursor,
+                                                                                                     @RequestParam(name = "size", defaultValue = "20") int size,
+                                                                                                     @ParameterObject Sort sort,
+                                                                                                     @RequestParam(name = "fields", required = false) String fields,
+                                                                                                     WebRequest webRequest) {
+        validationCursorSize(size);
+        validationCursorFields(fields);
+        String eTag = catalogETag(webRequest);
+        if(eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        CursorPageResponseDto<ProductResponseDto> obtainedProducts = productService.searchByNameByCursor(query, cursor, size, sort);
+        return ResponseEntity.ok().eTag(eTag).body(obtainedProducts);
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Обновить продукт по id")
+    @Operation(summary = "Обновить продукт по id", description = "С If-Match обновит только версию из ETag, иначе 412")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Ok",  content = @Content(schema = @Schema(implementation = ProductResponseDto.class))),
             @ApiResponse(responseCode = "400", description = "Bad Request",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+
+    })
+    public ResponseEntity<ProductResponseDto> updateProduct(@PathVariable Long id, @RequestBody @Valid ProductUpdateRequestDto dto,
+                                                            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductResponseDto productResponseDto = productService.updateProduct(id, dto, ProductEtags.expectedVersion(ifMatch, id));
+        return ResponseEntity.ok()
+                .eTag(ProductEtags.of(productResponseDto.getId(), productResponseDto.getVersion()))
+                .body(productResponseDto);
+    }
+
+    @PatchMapping("/{id}/stock")
+    @Operation(summary = "Изменить остаток продукта на delta",
+            description = "Атомарно, без чтения продукта; остаток не может стать отрицательным")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok", content = @Content(schema = @Schema(implementation = StockResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Bad Request",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "409", description = "Conflict (недостаточно остатка)",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+
+    })
+    public ResponseEntity<StockResponseDto> adjustStock(@PathVariable Long id, @RequestBody @Valid StockAdjustmentRequestDto dto) {
+        StockResponseDto stockResponseDto = productService.adjustStock(id, dto.getDelta());
+        return ResponseEntity.ok()
+                .eTag(ProductEtags.of(stockResponseDto.getId(), stockResponseDto.getVersion()))
+                .body(stockResponseDto);
+    }
+
+    @PatchMapping("/stock")
+    @Operation(summary = "Изменить остатки нескольких продуктов",
+            description = "Всё или ничего: если хотя бы одному продукту не хватает остатка, изменения не применяются")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ok"),
+            @ApiResponse(responseCode = "400", description = "Bad Request",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "409", description = "Conflict (недостаточно остатка)",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
 
     })
-    public ResponseEntity<ProductResponseDto> updateProduct(@PathVariable Long id, @RequestBody @Valid ProductUpdateRequestDto dto) {
-        ProductResponseDto productResponseDto = productService.updateProduct(id, dto);
-        return ResponseEntity.ok(productResponseDto);
+    public ResponseEntity<List<StockResponseDto>> adjustStock(@RequestBody @Valid StockBulkAdjustmentRequestDto dto) {
+        List<StockResponseDto> stockResponseDtos = productService.adjustStock(dto.getItems());
+        return ResponseEntity.ok(stockResponseDtos);
     }
 
     @DeleteMapping("/{id}")
-    @Operation(summary = "Удалить продукт")
+    @Operation(summary = "Удалить продукт", description = "С If-Match удалит только версию из ETag, иначе 412")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "No Content"),
             @ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
 
     })
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        productService.deleteProduct(id);
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long id,
+                                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        productService.deleteProduct(id, ProductEtags.expectedVersion(ifMatch, id));
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * The catalog tag of a list response, or null when its reads go to a replica: the revision covers every commit
+     * on the primary, and a lagging replica could return older rows under it, keeping clients on 304 for stale data.
+     */
+    private String catalogETag(WebRequest webRequest) {
+        if(webRequest.getAttribute(ReadYourWritesFilter.REPLICA_READS_ATTRIBUTE, WebRequest.SCOPE_REQUEST) != null) {
+            return null;
+        }
+        return ProductEtags.catalog(catalogRevision.current());
+    }
+
+    private void validationCursorSize(int size) {
+        if(size < 1 || size > 100) {
+            throw new IllegalArgumentException("size must be between 1 and 100");
+        }
+    }
+
+    private void validationCursorFields(String fields) {
+        if(fields != null) {
+            throw new IllegalArgumentException("fields can not be combined with cursor");
+        }
+    }
 }
@@ -5,12 +5,14 @@ import com.catalogservice.dto.auth.LoginRequestDto;
 import com.catalogservice.dto.auth.LoginResponseDto;
 import com.catalogservice.dto.auth.RegisterRequestDto;
 import com.catalogservice.dto.auth.RegisterResponseDto;
+import com.catalogservice.security.ratelimit.RequestRateLimiter;
 import com.catalogservice.service.auth.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +26,7 @@ import java.net.URI;
 public class AuthController {
 
     private final AuthService authService;
+    private final RequestRateLimiter requestRateLimiter;
 
     @PostMapping("/register")
     @Operation(summary = "Регистрация пользователя", description = "email, username уникален; в Location вернётся URI созданного ресурса")
@@ -34,6 +37,8 @@ public class AuthController {
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "409", description = "Conflict (дубликат email или username)",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "503", description = "SERVICE_BUSY очередь хеширования паролей заполнена, см. Retry-After",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
     })
     public ResponseEntity<RegisterResponseDto> register(@RequestBody @Valid RegisterRequestDto requestDto) {
         RegisterResponseDto register = authService.register(requestDto);
@@ -51,9 +56,16 @@ public class AuthController {
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "400", description = "VALIDATION_ERROR",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "429", description = "RATE_LIMITED слишком много неудачных попыток с этого адреса или для этого email, см. Retry-After",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "503", description = "SERVICE_BUSY очередь хеширования паролей заполнена, см. Retry-After",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
     })
-    public ResponseEntity<LoginResponseDto> login(@RequestBody @Valid LoginRequestDto loginRequestDto) {
-        LoginResponseDto login = authService.login(loginRequestDto);
+    public ResponseEntity<LoginResponseDto> login(@RequestBody @Valid LoginRequestDto loginRequestDto,
+                                                  HttpServletRequest httpServletRequest) {
+        String clientIp = httpServletRequest.getRemoteAddr();
+        LoginResponseDto login = requestRateLimiter.attemptLogin(clientIp, loginRequestDto.getEmail(),
+                () -> authService.login(loginRequestDto));
         return ResponseEntity.ok(login);
     }
 }
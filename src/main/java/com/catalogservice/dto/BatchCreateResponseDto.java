@@ -0,0 +1,14 @@
+package com.catalogservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class BatchCreateResponseDto {
+    private int created;
+    private int failed;
+    private List<BatchItemResultDto> items;
+}
@@ -0,0 +1,17 @@
+package com.catalogservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Builder
+public class BatchItemResultDto {
+    private int index;
+    private BatchItemStatus status;
+    private String code;
+    private ProductResponseDto product;
+    private Map<String, List<String>> details;
+}
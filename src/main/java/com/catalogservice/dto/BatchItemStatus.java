@@ -0,0 +1,6 @@
+package com.catalogservice.dto;
+
+public enum BatchItemStatus {
+    CREATED,
+    FAILED
+}
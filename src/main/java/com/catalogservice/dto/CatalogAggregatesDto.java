@@ -0,0 +1,17 @@
+package com.catalogservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Builder
+public class CatalogAggregatesDto {
+    private long products;
+    private long outOfStock;
+    private long totalStock;
+    private BigDecimal stockValue;
+    private List<PriceBucketDto> priceBuckets;
+}
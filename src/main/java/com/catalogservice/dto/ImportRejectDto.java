@@ -0,0 +1,14 @@
+package com.catalogservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Builder
+public class ImportRejectDto {
+    private long line;
+    private Map<String, List<String>> details;
+}
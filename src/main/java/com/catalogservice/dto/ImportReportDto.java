@@ -0,0 +1,20 @@
+package com.catalogservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class ImportReportDto {
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long rejected;
+    private List<ImportRejectDto> rejects;
+    private boolean rejectsTruncated;
+    private long tookMs;
+    private double rowsPerSecond;
+}
@@ -0,0 +1,14 @@
+package com.catalogservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Builder
+public class PriceBucketDto {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+}
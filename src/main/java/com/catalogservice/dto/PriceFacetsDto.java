@@ -0,0 +1,15 @@
+package com.catalogservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class PriceFacetsDto {
+    private String query;
+    private long products;
+    private long outOfStock;
+    private List<PriceBucketDto> priceBuckets;
+}
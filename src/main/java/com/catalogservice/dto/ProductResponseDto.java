@@ -21,4 +21,5 @@ public class ProductResponseDto{
     @JsonFormat(shape =  JsonFormat.Shape.STRING)
     private Instant updatedAt;
     private String sku;
+    private Long version;
 }
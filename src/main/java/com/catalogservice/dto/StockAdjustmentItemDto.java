@@ -0,0 +1,12 @@
+package com.catalogservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class StockAdjustmentItemDto extends StockAdjustmentRequestDto {
+    @NotNull
+    private Long productId;
+}
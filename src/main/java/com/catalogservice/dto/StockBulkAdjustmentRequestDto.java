@@ -0,0 +1,17 @@
+package com.catalogservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class StockBulkAdjustmentRequestDto {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid StockAdjustmentItemDto> items;
+}
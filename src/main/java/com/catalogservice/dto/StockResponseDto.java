@@ -0,0 +1,12 @@
+package com.catalogservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class StockResponseDto {
+    private Long id;
+    private Integer stock;
+    private Long version;
+}
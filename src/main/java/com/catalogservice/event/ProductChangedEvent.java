@@ -0,0 +1,28 @@
+package com.catalogservice.event;
+
+/**
+ * Published by the product write paths inside their transaction; listeners react after commit.
+ * {@code before} is null for created products and {@code after} is null for deleted ones.
+ */
+public record ProductChangedEvent(ProductSnapshot before, ProductSnapshot after) {
+
+    public static ProductChangedEvent created(ProductSnapshot after) {
+        return new ProductChangedEvent(null, after);
+    }
+
+    public static ProductChangedEvent updated(ProductSnapshot before, ProductSnapshot after) {
+        return new ProductChangedEvent(before, after);
+    }
+
+    public static ProductChangedEvent deleted(ProductSnapshot before) {
+        return new ProductChangedEvent(before, null);
+    }
+
+    public Long productId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    public boolean isDeleted() {
+        return after == null;
+    }
+}
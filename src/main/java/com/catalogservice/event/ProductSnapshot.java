@@ -0,0 +1,13 @@
+package com.catalogservice.event;
+
+import com.catalogservice.entity.Product;
+
+import java.math.BigDecimal;
+
+public record ProductSnapshot(Long id, String name, String sku, BigDecimal price, Integer stock, Long version) {
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.getId(), product.getName(), product.getSku(),
+                product.getPrice(), product.getStock(), product.getVersion());
+    }
+}
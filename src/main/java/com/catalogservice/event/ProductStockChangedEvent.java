@@ -0,0 +1,11 @@
+package com.catalogservice.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by the atomic stock adjustment inside its transaction, which changes stock and version
+ * without loading the product; listeners react after commit. {@code price} and {@code previousStock}
+ * let counters move the product between totals without keeping a copy of it.
+ */
+public record ProductStockChangedEvent(Long productId, BigDecimal price, Integer previousStock, Integer stock, Long version) {
+}
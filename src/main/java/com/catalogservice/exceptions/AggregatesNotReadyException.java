@@ -0,0 +1,14 @@
+package com.catalogservice.exceptions;
+
+public class AggregatesNotReadyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public AggregatesNotReadyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,15 +1,23 @@
 package com.catalogservice.exceptions;
 
 import com.catalogservice.dto.ErrorResponseDto;
+import com.catalogservice.dto.ImportReportDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.Instant;
 import java.util.*;
@@ -17,6 +25,11 @@ import java.util.*;
 @Slf4j
 @RestControllerAdvice
 public class ApiExceptionHandler {
+    private final MeterRegistry meterRegistry;
+
+    public ApiExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
 
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ErrorResponseDto> handleNotFoundException(NotFoundException e, HttpServletRequest httpServletRequest) {
@@ -40,6 +53,35 @@ public class ApiExceptionHandler {
 
     }
 
+    @ExceptionHandler(ImportAbortedException.class)
+    public ResponseEntity<ErrorResponseDto> handleImportAbortedException(ImportAbortedException e, HttpServletRequest httpServletRequest) {
+        String path = getPath(httpServletRequest);
+        String requestId = httpServletRequest.getHeader("X-Request-Id");
+        extractedBadRequestLog(e, requestId, path);
+
+        ImportReportDto report = e.getReport();
+        Map<String, List<String>> details = new LinkedHashMap<>();
+        details.put("row", List.of(e.getMessage()));
+        details.put("rows", List.of(String.valueOf(report.getRows())));
+        details.put("inserted", List.of(String.valueOf(report.getInserted())));
+        details.put("updated", List.of(String.valueOf(report.getUpdated())));
+        details.put("unchanged", List.of(String.valueOf(report.getUnchanged())));
+        details.put("rejected", List.of(String.valueOf(report.getRejected())));
+        return generateErrorResponse(HttpStatus.BAD_REQUEST, "Import aborted",
+                path, requestId, "IMPORT_ABORTED", details);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponseDto> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException e,
+                                                                                      HttpServletRequest httpServletRequest) {
+        String path = getPath(httpServletRequest);
+        String requestId = httpServletRequest.getHeader("X-Request-Id");
+        extractedBadRequestLog(e, requestId, path);
+
+        return generateErrorResponse(HttpStatus.BAD_REQUEST, "Bad Request",
+                path, requestId, "BAD_REQUEST", Map.of(e.getName(), List.of("invalid value")));
+    }
+
     @ExceptionHandler(InvalidCredentialsException.class)
     public ResponseEntity<ErrorResponseDto> handleInvalidCredentialsException(InvalidCredentialsException e, HttpServletRequest httpServletRequest) {
         String path = getPath(httpServletRequest);
@@ -64,6 +106,50 @@ public class ApiExceptionHandler {
 
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponseDto> handlePreconditionFailedException(PreconditionFailedException e, HttpServletRequest httpServletRequest) {
+        String path = getPath(httpServletRequest);
+        String requestId = httpServletRequest.getHeader("X-Request-Id");
+        log.info("412 PRECONDITION_FAILED requestId={} path={} msg={}",
+                requestId, path, e.getMessage());
+
+        return generateErrorResponse(HttpStatus.PRECONDITION_FAILED, "Precondition Failed",
+                path, requestId, "PRECONDITION_FAILED", null);
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorResponseDto> handlePasswordHashingBusyException(PasswordHashingBusyException e, HttpServletRequest httpServletRequest) {
+        String path = getPath(httpServletRequest);
+        String requestId = httpServletRequest.getHeader("X-Request-Id");
+        log.warn("503 SERVICE_BUSY requestId={} path={} msg={}",
+                requestId, path, e.getMessage());
+
+        return withRetryAfter(generateErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service busy",
+                path, requestId, "SERVICE_BUSY", null), e.getRetryAfterSeconds());
+    }
+
+    @ExceptionHandler(AggregatesNotReadyException.class)
+    public ResponseEntity<ErrorResponseDto> handleAggregatesNotReadyException(AggregatesNotReadyException e, HttpServletRequest httpServletRequest) {
+        String path = getPath(httpServletRequest);
+        String requestId = httpServletRequest.getHeader("X-Request-Id");
+        log.warn("503 AGGREGATES_NOT_READY requestId={} path={} msg={}",
+                requestId, path, e.getMessage());
+
+        return withRetryAfter(generateErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(),
+                path, requestId, "AGGREGATES_NOT_READY", null), e.getRetryAfterSeconds());
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ErrorResponseDto> handleRateLimitedException(RateLimitedException e, HttpServletRequest httpServletRequest) {
+        String path = getPath(httpServletRequest);
+        String requestId = httpServletRequest.getHeader("X-Request-Id");
+        log.info("429 RATE_LIMITED requestId={} path={} msg={}",
+                requestId, path, e.getMessage());
+
+        return withRetryAfter(generateErrorResponse(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                path, requestId, "RATE_LIMITED", null), e.getRetryAfterSeconds());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponseDto> handleMethodArgumentNotValidException(MethodArgumentNotValidException e,
                                                                                   HttpServletRequest httpServletRequest) {
@@ -79,6 +165,7 @@ public class ApiExceptionHandler {
         }
 
         extractedBadRequestLog(e, requestId, path);
+        countError(HttpStatus.BAD_REQUEST, "VALIDATION_ERROR");
 
         ErrorResponseDto body = ErrorResponseDto.builder()
                 .timestamp(Instant.now())
@@ -111,6 +198,28 @@ public class ApiExceptionHandler {
                 path, requestId, "UNIQUE_VIOLATION", Map.of("sku", List.of("already exists")));
     }
 
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponseDto> handleInsufficientStockException(InsufficientStockException e, HttpServletRequest httpServletRequest) {
+        String path = getPath(httpServletRequest);
+        String requestId = httpServletRequest.getHeader("X-Request-Id");
+        extractedConflictLog(e, requestId, path);
+
+        Map<String, List<String>> details = new LinkedHashMap<>();
+        e.getProductIds().forEach(id -> details.put(String.valueOf(id), List.of("not enough stock")));
+        return generateErrorResponse(HttpStatus.CONFLICT, "Insufficient stock",
+                path, requestId, "INSUFFICIENT_STOCK", details);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException e, HttpServletRequest httpServletRequest) {
+        String path = getPath(httpServletRequest);
+        String requestId = httpServletRequest.getHeader("X-Request-Id");
+        extractedConflictLog(e, requestId, path);
+
+        return generateErrorResponse(HttpStatus.CONFLICT, "Concurrent modification",
+                path, requestId, "VERSION_CONFLICT", null);
+    }
+
     @ExceptionHandler(DuplicateEmailException.class)
     public ResponseEntity<ErrorResponseDto> handleDuplicateEmailException(DuplicateEmailException e, HttpServletRequest httpServletRequest) {
         String path = getPath(httpServletRequest);
@@ -145,6 +254,7 @@ public class ApiExceptionHandler {
     private ResponseEntity<ErrorResponseDto> generateErrorResponse(HttpStatus status, String message, String path,
                                                                    String requestId, String code,
                                                                    Map<String, List<String>> details) {
+        countError(status, code);
         return ResponseEntity.status(status).body(ErrorResponseDto.builder()
                 .timestamp(Instant.now())
                 .requestId(requestId)
@@ -154,6 +264,23 @@ public class ApiExceptionHandler {
                 .message(message).build());
     }
 
+    /**
+     * {@code api.errors{code,status}}: one series per error code, so the set stays as small as the list of handlers.
+     */
+    private void countError(HttpStatus status, String code) {
+        Counter.builder("api.errors")
+                .tag("code", code)
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static ResponseEntity<ErrorResponseDto> withRetryAfter(ResponseEntity<ErrorResponseDto> response, long retryAfterSeconds) {
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response.getBody());
+    }
+
     private static void extractedConflictLog(Exception e, String requestId, String path) {
         log.warn("409 CLIENT_ERROR_CONFLICT requestId={} path={} msg={}",
                 requestId, path, e.getMessage());
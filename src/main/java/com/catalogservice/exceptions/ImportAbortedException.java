@@ -0,0 +1,19 @@
+package com.catalogservice.exceptions;
+
+import com.catalogservice.dto.ImportReportDto;
+
+/**
+ * The import stream could not be read any further; {@link #getReport()} counts what the chunks committed before that.
+ */
+public class ImportAbortedException extends RuntimeException {
+    private final ImportReportDto report;
+
+    public ImportAbortedException(String message, ImportReportDto report) {
+        super(message);
+        this.report = report;
+    }
+
+    public ImportReportDto getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,16 @@
+package com.catalogservice.exceptions;
+
+import java.util.List;
+
+public class InsufficientStockException extends RuntimeException{
+    private final List<Long> productIds;
+
+    public InsufficientStockException(List<Long> productIds) {
+        super("Not enough stock for products " + productIds);
+        this.productIds = List.copyOf(productIds);
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
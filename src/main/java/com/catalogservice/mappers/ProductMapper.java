@@ -17,6 +17,7 @@ public class ProductMapper {
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
                 .sku(product.getSku())
+                .version(product.getVersion())
                 .build();
     }
 
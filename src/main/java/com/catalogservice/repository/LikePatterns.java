@@ -0,0 +1,24 @@
+package com.catalogservice.repository;
+
+public final class LikePatterns {
+    private LikePatterns() {
+    }
+
+    /**
+     * Builds a {@code %value%} pattern for {@code LIKE ... ESCAPE '\'} with wildcards in the value escaped.
+     */
+    public static String contains(String value) {
+        return "%" + escape(value) + "%";
+    }
+
+    /**
+     * Builds a {@code value%} pattern for {@code LIKE ... ESCAPE '\'}, which a {@code varchar_pattern_ops} index can serve.
+     */
+    public static String startsWith(String value) {
+        return escape(value) + "%";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
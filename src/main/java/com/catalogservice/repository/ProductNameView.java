@@ -0,0 +1,6 @@
+package com.catalogservice.repository;
+
+public interface ProductNameView {
+    Long getId();
+    String getName();
+}
@@ -1,18 +1,105 @@
 package com.catalogservice.repository;
 
 import com.catalogservice.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     boolean existsByNameIgnoreCase(String name);
     Optional<Product> findByNameIgnoreCase(String name);
     Page<Product> findAllByNameContainingIgnoreCase(String query, Pageable pageable);
     boolean existsBySkuIgnoreCase(String sku);
     Optional<Product> findBySkuIgnoreCase(String sku);
+    @Query("select p.sku from Product p where p.sku in :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+    List<Product> findAllBySkuIn(Collection<String> skus);
+    Slice<Product> findSliceBy(Pageable pageable);
+    Slice<Product> findSliceByNameContainingIgnoreCase(String query, Pageable pageable);
+    long countByNameContainingIgnoreCase(String query);
+    @Query("select count(p) from Product p where p.name ilike :pattern escape '\\'")
+    long countByNameIlike(@Param("pattern") String pattern);
+    @Query("select p from Product p where p.name ilike :pattern escape '\\'")
+    Page<Product> findAllByNameIlike(@Param("pattern") String pattern, Pageable pageable);
+    @Query("select p from Product p where p.name ilike :pattern escape '\\'")
+    Slice<Product> findSliceByNameIlike(@Param("pattern") String pattern, Pageable pageable);
+    @Query(value = "SELECT p.* FROM product p WHERE p.name ILIKE :pattern ESCAPE '\\' ORDER BY similarity(p.name, :query) DESC, p.id",
+            countQuery = "SELECT count(*) FROM product p WHERE p.name ILIKE :pattern ESCAPE '\\'",
+            nativeQuery = true)
+    Page<Product> findAllByNameOrderBySimilarity(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
+    @Query("select p from Product p where upper(p.name) like upper(:pattern) escape '\\' order by length(p.name), p.id")
+    Page<Product> findAllByNameOrderByLength(@Param("pattern") String pattern, Pageable pageable);
+    @Query(value = "SELECT p.* FROM product p WHERE p.name ILIKE :pattern ESCAPE '\\' ORDER BY similarity(p.name, :query) DESC, p.id",
+            nativeQuery = true)
+    Slice<Product> findSliceByNameOrderBySimilarity(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
+    @Query("select p from Product p where upper(p.name) like upper(:pattern) escape '\\' order by length(p.name), p.id")
+    Slice<Product> findSliceByNameOrderByLength(@Param("pattern") String pattern, Pageable pageable);
+    Page<ProductSummary> findSummariesBy(Pageable pageable);
+    Slice<ProductSummary> findSummarySliceBy(Pageable pageable);
+    Page<ProductSummary> findSummariesByNameContainingIgnoreCase(String query, Pageable pageable);
+    Slice<ProductSummary> findSummarySliceByNameContainingIgnoreCase(String query, Pageable pageable);
+    @Query(value = """
+            select new com.catalogservice.repository.ProductSummary(p.id, p.sku, p.name, p.price, p.stock, p.version)
+            from Product p where p.name ilike :pattern escape '\\'""",
+            countQuery = "select count(p) from Product p where p.name ilike :pattern escape '\\'")
+    Page<ProductSummary> findSummariesByNameIlike(@Param("pattern") String pattern, Pageable pageable);
+    @Query("""
+            select new com.catalogservice.repository.ProductSummary(p.id, p.sku, p.name, p.price, p.stock, p.version)
+            from Product p where p.name ilike :pattern escape '\\'""")
+    Slice<ProductSummary> findSummarySliceByNameIlike(@Param("pattern") String pattern, Pageable pageable);
+    List<ProductSummary> findSummariesByIdIn(Collection<Long> ids);
+    @Query("select p.id as id, p.name as name from Product p where p.id > :afterId order by p.id")
+    List<ProductNameView> findNamesByIdGreaterThan(@Param("afterId") Long afterId, Limit limit);
+    @Query("select p.id as id, p.sku as sku from Product p where p.id > :afterId order by p.id")
+    List<ProductSkuView> findSkusByIdGreaterThan(@Param("afterId") Long afterId, Limit limit);
+    @Query(value = """
+            UPDATE product SET stock = stock + :delta, version = version + 1, updated_at = now()
+            WHERE id = :id AND stock + CAST(:delta AS bigint) BETWEEN 0 AND 2147483647
+            RETURNING id, price, stock, version""", nativeQuery = true)
+    Optional<ProductStockView> adjustStockReturning(@Param("id") Long id, @Param("delta") int delta);
+    @Modifying
+    @Query("""
+            update Product p set p.stock = p.stock + :delta, p.version = p.version + 1, p.updatedAt = :now
+            where p.id = :id and cast(p.stock as Long) + :delta between 0 and 2147483647""")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta, @Param("now") Instant now);
+    @Query("select p.version from Product p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    @Query("select p.id as id, p.price as price, p.stock as stock, p.version as version from Product p where p.id = :id")
+    Optional<ProductStockView> findStockById(@Param("id") Long id);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
+    Window<Product> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * {@code name ilike :pattern}, which the pg_trgm index can serve, for the {@code findBy(spec, query)} paths
+     * such as keyset scrolling; derived {@code ContainingIgnoreCase} queries compile to {@code upper(name) like}.
+     */
+    static Specification<Product> nameIlike(String pattern) {
+        return (root, query, cb) -> ((HibernateCriteriaBuilder) cb).ilike(root.get("name"), pattern, '\\');
+    }
 }
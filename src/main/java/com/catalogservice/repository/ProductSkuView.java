@@ -0,0 +1,6 @@
+package com.catalogservice.repository;
+
+public interface ProductSkuView {
+    Long getId();
+    String getSku();
+}
@@ -0,0 +1,10 @@
+package com.catalogservice.repository;
+
+import java.math.BigDecimal;
+
+public interface ProductStockView {
+    Long getId();
+    BigDecimal getPrice();
+    Integer getStock();
+    Long getVersion();
+}
@@ -0,0 +1,9 @@
+package com.catalogservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Column-limited row for list views: read with a constructor expression, so no {@code Product} entity is managed.
+ */
+public record ProductSummary(Long id, String sku, String name, BigDecimal price, Integer stock, Long version) {
+}
@@ -2,7 +2,8 @@ package com.catalogservice.repository;
 
 import com.catalogservice.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,6 +11,11 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmailIgnoreCase(String email);
+    /**
+     * User and roles in one statement; {@code email} must already be lower-cased, so the lookup uses {@code ux_users_email_ci}.
+     */
+    @Query("select u from User u left join fetch u.roles where lower(u.email) = :email")
+    Optional<User> findWithRolesByEmail(@Param("email") String email);
     boolean existsByEmailIgnoreCase(String email);
     boolean existsByUsernameIgnoreCase(String username);
 }
@@ -0,0 +1,126 @@
+package com.catalogservice.security.ratelimit;
+
+import com.catalogservice.exceptions.AccountDisabledException;
+import com.catalogservice.exceptions.InvalidCredentialsException;
+import com.catalogservice.exceptions.RateLimitedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-endpoint request limits, checked before any database or password hashing work.
+ * <ul>
+ *     <li>login: attempts per client address ({@code catalog.rate-limit.login-ip.*}) and per email
+ *     ({@code catalog.rate-limit.login-email.*}); a token is reserved on both before the password is checked and
+ *     given back unless the login fails with bad credentials or a disabled account, so only those count and a burst of parallel attempts cannot get
+ *     past the capacity before the first failure is known.</li>
+ *     <li>search: every request per client address ({@code catalog.rate-limit.search.*}).</li>
+ * </ul>
+ * Each limit has a {@code capacity} (burst) and a {@code refill-period} (one token per period).
+ * Client addresses come from {@code getRemoteAddr()}, which is only the real client when
+ * {@code server.forward-headers-strategy=native} resolves {@code X-Forwarded-For} from a trusted proxy
+ * ({@code server.tomcat.remoteip.internal-proxies}); behind any other proxy every client would share one bucket.
+ * Limiting is therefore off unless {@code catalog.rate-limit.enabled=true}.
+ */
+@Component
+public class RequestRateLimiter {
+    private final boolean enabled;
+    private final TokenBucketLimiter loginByIp;
+    private final TokenBucketLimiter loginByEmail;
+    private final TokenBucketLimiter search;
+    private final Counter loginIpRejected;
+    private final Counter loginEmailRejected;
+    private final Counter searchRejected;
+
+    public RequestRateLimiter(@Value("${catalog.rate-limit.enabled:false}") boolean enabled,
+                              @Value("${catalog.rate-limit.stripes:65536}") int stripes,
+                              @Value("${catalog.rate-limit.login-ip.capacity:20}") int loginIpCapacity,
+                              @Value("${catalog.rate-limit.login-ip.refill-period:3s}") Duration loginIpRefillPeriod,
+                              @Value("${catalog.rate-limit.login-email.capacity:5}") int loginEmailCapacity,
+                              @Value("${catalog.rate-limit.login-email.refill-period:1m}") Duration loginEmailRefillPeriod,
+                              @Value("${catalog.rate-limit.search.capacity:20}") int searchCapacity,
+                              @Value("${catalog.rate-limit.search.refill-period:100ms}") Duration searchRefillPeriod,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.loginByIp = new TokenBucketLimiter(loginIpCapacity, loginIpRefillPeriod, stripes);
+        this.loginByEmail = new TokenBucketLimiter(loginEmailCapacity, loginEmailRefillPeriod, stripes);
+        this.search = new TokenBucketLimiter(searchCapacity, searchRefillPeriod, stripes);
+        this.loginIpRejected = Counter.builder("rate.limit.rejected").tag("limit", "login_ip").register(meterRegistry);
+        this.loginEmailRejected = Counter.builder("rate.limit.rejected").tag("limit", "login_email").register(meterRegistry);
+        this.searchRejected = Counter.builder("rate.limit.rejected").tag("limit", "search").register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code login} with an attempt reserved by {@link #acquireLogin(String, String)}. The attempt is kept
+     * only when {@code login} throws {@link InvalidCredentialsException} or {@link AccountDisabledException};
+     * success and any other failure, such as {@code PasswordHashingBusyException}, give it back.
+     */
+    public <T> T attemptLogin(String clientIp, String email, Supplier<T> login) {
+        acquireLogin(clientIp, email);
+        T result;
+        try {
+            result = login.get();
+        } catch (InvalidCredentialsException | AccountDisabledException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            refundLogin(clientIp, email);
+            throw e;
+        }
+        refundLogin(clientIp, email);
+        return result;
+    }
+
+    /**
+     * Reserves a login attempt for the client address and the email, or throws {@link RateLimitedException}
+     * if either has none left. Call {@link #refundLogin(String, String)} unless the attempt failed on credentials.
+     */
+    public void acquireLogin(String clientIp, String email) {
+        if(!enabled) {
+            return;
+        }
+        long ipWait = loginByIp.tryAcquire(clientIp);
+        if(ipWait > 0) {
+            loginIpRejected.increment();
+            throw rejected("login", ipWait);
+        }
+        long emailWait = loginByEmail.tryAcquire(emailKey(email));
+        if(emailWait > 0) {
+            loginByIp.refund(clientIp);
+            loginEmailRejected.increment();
+            throw rejected("login", emailWait);
+        }
+    }
+
+    public void refundLogin(String clientIp, String email) {
+        if(!enabled) {
+            return;
+        }
+        loginByIp.refund(clientIp);
+        loginByEmail.refund(emailKey(email));
+    }
+
+    public void acquireSearch(String clientIp) {
+        if(!enabled) {
+            return;
+        }
+        long wait = search.tryAcquire(clientIp);
+        if(wait > 0) {
+            searchRejected.increment();
+            throw rejected("search", wait);
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase();
+    }
+
+    private static RateLimitedException rejected(String limit, long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new RateLimitedException(String.format("Rate limit exceeded for %s", limit), retryAfterSeconds);
+    }
+}
@@ -0,0 +1,22 @@
+package com.catalogservice.security.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Takes a search token for the client address before the search handler runs.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchRateLimitInterceptor implements HandlerInterceptor {
+    private final RequestRateLimiter requestRateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        requestRateLimiter.acquireSearch(request.getRemoteAddr());
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package com.catalogservice.security.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets of {@code capacity} tokens refilled one per {@code refillPeriod}, kept as a fixed array of
+ * striped slots instead of a map: a key is hashed onto a slot, so memory stays bounded however many clients
+ * show up and no keys (addresses, emails) are retained.
+ * <p>
+ * Each slot holds a single long, the time at which its bucket will be full again (the GCRA form of a token
+ * bucket), and is updated with a CAS loop, so no lock is taken on any path. Two keys sharing a slot share a
+ * bucket; with the default stripe count that only ever makes limiting slightly stricter for them.
+ */
+public final class TokenBucketLimiter {
+    private final AtomicLongArray fullAt;
+    private final int mask;
+    private final int seed;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier clock;
+    private final long origin;
+
+    public TokenBucketLimiter(int capacity, Duration refillPeriod, int stripes) {
+        this(capacity, refillPeriod, stripes, System::nanoTime);
+    }
+
+    public TokenBucketLimiter(int capacity, Duration refillPeriod, int stripes, LongSupplier clock) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Rate limit capacity must be at least 1");
+        }
+        if(refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalArgumentException("Rate limit refill period must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, Math.min(stripes, 1 << 24)));
+        this.fullAt = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.seed = ThreadLocalRandom.current().nextInt();
+        this.intervalNanos = refillPeriod.toNanos();
+        this.toleranceNanos = intervalNanos * (capacity - 1);
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * Takes a token for {@code key}. Returns 0 on success, otherwise the nanoseconds until a token is available;
+     * a refused call takes nothing.
+     */
+    public long tryAcquire(String key) {
+        int slot = slot(key);
+        while (true) {
+            long now = now();
+            long current = fullAt.get(slot);
+            long start = Math.max(current, now);
+            long wait = start - now - toleranceNanos;
+            if(wait > 0) {
+                return wait;
+            }
+            if(fullAt.compareAndSet(slot, current, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(String)} once the work it reserved turned out not to count.
+     * A bucket is never refilled past its capacity.
+     */
+    public void refund(String key) {
+        int slot = slot(key);
+        while (true) {
+            long now = now();
+            long current = fullAt.get(slot);
+            long next = Math.max(current - intervalNanos, now);
+            if(next >= current || fullAt.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private long now() {
+        return clock.getAsLong() - origin;
+    }
+
+    private int slot(String key) {
+        int h = key.hashCode() ^ seed;
+        h *= 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
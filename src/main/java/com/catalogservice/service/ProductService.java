@@ -1,19 +1,52 @@
 package com.catalogservice.service;
 
+import com.catalogservice.dto.BatchCreateResponseDto;
+import com.catalogservice.dto.CatalogAggregatesDto;
+import com.catalogservice.dto.CursorPageResponseDto;
+import com.catalogservice.dto.PriceFacetsDto;
 import com.catalogservice.dto.ProductCreateRequestDto;
 import com.catalogservice.dto.ProductResponseDto;
 import com.catalogservice.dto.ProductUpdateRequestDto;
+import com.catalogservice.dto.StockAdjustmentItemDto;
+import com.catalogservice.dto.StockResponseDto;
+import com.catalogservice.service.count.CountMode;
+import com.catalogservice.service.count.CountedSlice;
+import com.catalogservice.service.fields.ProductFields;
+import com.catalogservice.service.filter.ProductFilter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+
 @Service
 public interface ProductService {
      ProductResponseDto createProduct(ProductCreateRequestDto productCreateRequestDto);
+    BatchCreateResponseDto createProducts(List<ProductCreateRequestDto> productCreateRequestDtos);
     ProductResponseDto getById(Long id);
+    Long getVersionById(Long id);
     Page<ProductResponseDto> getAll(Pageable pageable);
     Page<ProductResponseDto> searchByName(String query, Pageable pageable);
+    Page<ProductResponseDto> searchByNameRanked(String query, Pageable pageable);
+    CountedSlice<ProductResponseDto> searchByNameRanked(String query, Pageable pageable, CountMode countMode);
+    CountedSlice<ProductResponseDto> getAll(Pageable pageable, CountMode countMode);
+    CountedSlice<ProductResponseDto> searchByName(String query, Pageable pageable, CountMode countMode);
+    CountedSlice<Map<String, Object>> getAll(Pageable pageable, CountMode countMode, ProductFields fields);
+    CountedSlice<ProductResponseDto> getAll(ProductFilter filter, Pageable pageable, CountMode countMode);
+    CountedSlice<Map<String, Object>> getAll(ProductFilter filter, Pageable pageable, CountMode countMode, ProductFields fields);
+    CountedSlice<Map<String, Object>> searchByName(String query, Pageable pageable, CountMode countMode, ProductFields fields);
+    CursorPageResponseDto<ProductResponseDto> getAllByCursor(String cursor, int size, Sort sort);
+    CursorPageResponseDto<ProductResponseDto> getAllByCursor(ProductFilter filter, String cursor, int size, Sort sort);
+    CursorPageResponseDto<ProductResponseDto> searchByNameByCursor(String query, String cursor, int size, Sort sort);
     ProductResponseDto updateProduct(Long id, ProductUpdateRequestDto productUpdateRequestDto);
+    ProductResponseDto updateProduct(Long id, ProductUpdateRequestDto productUpdateRequestDto, Long expectedVersion);
+    StockResponseDto adjustStock(Long id, int delta);
+    List<StockResponseDto> adjustStock(List<StockAdjustmentItemDto> adjustments);
     void deleteProduct(Long id);
+    void deleteProduct(Long id, Long expectedVersion);
+    CatalogAggregatesDto getAggregates();
+    PriceFacetsDto getPriceFacets(String query);
 
 }
@@ -1,50 +1,226 @@
 package com.catalogservice.service;
 
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.dto.BatchCreateResponseDto;
+import com.catalogservice.dto.BatchItemResultDto;
+import com.catalogservice.dto.BatchItemStatus;
+import com.catalogservice.dto.CatalogAggregatesDto;
+import com.catalogservice.dto.CursorPageResponseDto;
+import com.catalogservice.dto.PriceBucketDto;
+import com.catalogservice.dto.PriceFacetsDto;
 import com.catalogservice.dto.ProductCreateRequestDto;
 import com.catalogservice.dto.ProductResponseDto;
 import com.catalogservice.dto.ProductUpdateRequestDto;
+import com.catalogservice.dto.StockAdjustmentItemDto;
+import com.catalogservice.dto.StockResponseDto;
 import com.catalogservice.entity.Product;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductSnapshot;
+import com.catalogservice.event.ProductStockChangedEvent;
+import com.catalogservice.exceptions.AggregatesNotReadyException;
 import com.catalogservice.exceptions.DuplicateProductException;
+import com.catalogservice.exceptions.InsufficientStockException;
 import com.catalogservice.exceptions.NotFoundException;
+import com.catalogservice.exceptions.PreconditionFailedException;
 import com.catalogservice.mappers.ProductMapper;
+import com.catalogservice.repository.LikePatterns;
 import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.repository.ProductStockView;
+import com.catalogservice.repository.ProductSummary;
+import com.catalogservice.service.aggregate.CatalogAggregates;
+import com.catalogservice.service.cache.ProductCache;
+import com.catalogservice.service.count.CountMode;
+import com.catalogservice.service.count.CountedSlice;
+import com.catalogservice.service.count.ProductCountEstimator;
+import com.catalogservice.service.cursor.ProductCursorCodec;
+import com.catalogservice.service.fields.ProductFields;
+import com.catalogservice.service.filter.ProductFilter;
+import com.catalogservice.service.search.ProductNameIndex;
+import com.catalogservice.service.sku.SkuBloomFilter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
 @Transactional(readOnly=true)
+@Timed(value = "product.service", histogram = true)
 public class ProductServiceImpl implements ProductService {
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String SKU_CONSTRAINT = "product_sku_key";
+
     private final ProductRepository productRepository;
     private final ProductMapper mapper;
+    private final ProductCursorCodec cursorCodec;
+    private final ProductCountEstimator countEstimator;
+    private final DatabasePlatform databasePlatform;
+    private final ProductNameIndex nameIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCache productCache;
+    private final SkuBloomFilter skuFilter;
+    private final CatalogAggregates aggregates;
+    private final Validator validator;
 
-    public ProductServiceImpl(ProductRepository productRepository, ProductMapper mapper) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductMapper mapper, ProductCursorCodec cursorCodec,
+                              ProductCountEstimator countEstimator, DatabasePlatform databasePlatform,
+                              ProductNameIndex nameIndex, ApplicationEventPublisher eventPublisher, ProductCache productCache,
+                              SkuBloomFilter skuFilter, CatalogAggregates aggregates, Validator validator) {
         this.productRepository = productRepository;
         this.mapper = mapper;
+        this.cursorCodec = cursorCodec;
+        this.countEstimator = countEstimator;
+        this.databasePlatform = databasePlatform;
+        this.nameIndex = nameIndex;
+        this.eventPublisher = eventPublisher;
+        this.productCache = productCache;
+        this.skuFilter = skuFilter;
+        this.aggregates = aggregates;
+        this.validator = validator;
     }
 
     @Override
     @Transactional
     public ProductResponseDto createProduct(ProductCreateRequestDto productCreateRequestDto) {
-        Optional<Product> bySkuIgnoreCase = productRepository.findBySkuIgnoreCase(productCreateRequestDto.getSku());
-        if(bySkuIgnoreCase.isPresent()){
-            throw new DuplicateProductException("Product with sku " + productCreateRequestDto.getSku() + " already exists");
+        String sku = productCreateRequestDto.getSku();
+        if(!skuFilter.isDefinitelyAbsent(sku)) {
+            boolean exists = productRepository.existsBySkuIgnoreCase(sku);
+            skuFilter.recordLookup(exists);
+            if(exists) {
+                throw new DuplicateProductException("Product with sku " + sku + " already exists");
+            }
+        }
+        Product save;
+        try {
+            save = productRepository.saveAndFlush(mapper.mapToProduct(productCreateRequestDto));
+        } catch (DataIntegrityViolationException e) {
+            if(isSkuViolation(e)) {
+                throw new DuplicateProductException("Product with sku " + sku + " already exists");
+            }
+            throw e;
         }
-        Product save = productRepository.save(mapper.mapToProduct(productCreateRequestDto));
+        eventPublisher.publishEvent(ProductChangedEvent.created(ProductSnapshot.of(save)));
         return mapper.mapToProductResponseDto(save);
     }
 
+    @Override
+    @Transactional
+    public BatchCreateResponseDto createProducts(List<ProductCreateRequestDto> productCreateRequestDtos) {
+        if(productCreateRequestDtos == null || productCreateRequestDtos.isEmpty()) {
+            throw new IllegalArgumentException("products must not be empty");
+        }
+        if(productCreateRequestDtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("batch size must be <= " + MAX_BATCH_SIZE);
+        }
+        BatchItemResultDto[] results = new BatchItemResultDto[productCreateRequestDtos.size()];
+        Map<String, Integer> indexBySku = new LinkedHashMap<>();
+        for (int i = 0; i < productCreateRequestDtos.size(); i++) {
+            ProductCreateRequestDto dto = productCreateRequestDtos.get(i);
+            Map<String, List<String>> violations = validationBatchItem(dto);
+            if(!violations.isEmpty()) {
+                results[i] = failedItem(i, "VALIDATION_ERROR", violations);
+                continue;
+            }
+            String sku = dto.getSku().trim().toUpperCase();
+            if(indexBySku.putIfAbsent(sku, i) != null) {
+                results[i] = failedItem(i, "UNIQUE_VIOLATION", Map.of("sku", List.of("duplicated in batch")));
+            }
+        }
+
+        List<String> maybeExisting = indexBySku.keySet().stream()
+                .filter(sku -> !skuFilter.isDefinitelyAbsent(sku))
+                .toList();
+        Set<String> existing = maybeExisting.isEmpty() ? Set.of() : Set.copyOf(productRepository.findExistingSkus(maybeExisting));
+        maybeExisting.forEach(sku -> skuFilter.recordLookup(existing.contains(sku)));
+
+        List<Integer> indexes = new ArrayList<>();
+        List<Product> products = new ArrayList<>();
+        indexBySku.forEach((sku, index) -> {
+            if(existing.contains(sku)) {
+                results[index] = failedItem(index, "UNIQUE_VIOLATION", Map.of("sku", List.of("already exists")));
+            } else {
+                indexes.add(index);
+                products.add(mapper.mapToProduct(productCreateRequestDtos.get(index)));
+            }
+        });
+        if(!products.isEmpty()) {
+            try {
+                productRepository.saveAll(products);
+                productRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                if(isSkuViolation(e)) {
+                    throw new DuplicateProductException("Products with one of the batch skus were created concurrently");
+                }
+                throw e;
+            }
+        }
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            eventPublisher.publishEvent(ProductChangedEvent.created(ProductSnapshot.of(product)));
+            results[indexes.get(i)] = BatchItemResultDto.builder()
+                    .index(indexes.get(i))
+                    .status(BatchItemStatus.CREATED)
+                    .product(mapper.mapToProductResponseDto(product))
+                    .build();
+        }
+        return BatchCreateResponseDto.builder()
+                .created(products.size())
+                .failed(results.length - products.size())
+                .items(List.of(results))
+                .build();
+    }
+
     @Override
     public ProductResponseDto getById(Long id) {
+        ProductResponseDto cached = productCache.get(id);
+        if(cached != null) {
+            return cached;
+        }
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Product with id: %s not found", id)));
-        return mapper.mapToProductResponseDto(product);
+        ProductResponseDto productResponseDto = mapper.mapToProductResponseDto(product);
+        productCache.put(productResponseDto);
+        return productResponseDto;
+    }
+
+    @Override
+    public Long getVersionById(Long id) {
+        ProductResponseDto cached = productCache.get(id);
+        if(cached != null) {
+            return cached.getVersion();
+        }
+        return productRepository.findVersionById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Product with id: %s not found", id)));
     }
 
     @Override
@@ -56,45 +232,470 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Page<ProductResponseDto> searchByName(String query, Pageable pageable) {
-        if(query == null || query.trim().isEmpty()) {
-            throw new IllegalArgumentException("Query is null or empty");
+        query = validationQuery(query);
+        validationSort(pageable.getSort());
+        if(nameIndex.canServe(pageable.getSort())) {
+            return searchByNameFromIndex(query, pageable);
         }
-        query = query.trim();
-        if(query.length() < 2 || query.length() > 120){
-            throw new IllegalArgumentException("query length should be between 2 and 120");
+
+        Page<Product> allByNameContainingIgnoreCase = databasePlatform.isPostgres()
+                ? productRepository.findAllByNameIlike(LikePatterns.contains(query), pageable)
+                : productRepository.findAllByNameContainingIgnoreCase(query, pageable);
+        return allByNameContainingIgnoreCase.map(mapper::mapToProductResponseDto);
+    }
+
+    @Override
+    public Page<ProductResponseDto> searchByNameRanked(String query, Pageable pageable) {
+        query = validationQuery(query);
+        if(pageable.getSort().isSorted()) {
+            throw new IllegalArgumentException("rank can not be combined with sort");
+        }
+        Page<Product> ranked = databasePlatform.isPostgres()
+                ? productRepository.findAllByNameOrderBySimilarity(query, LikePatterns.contains(query), pageable)
+                : productRepository.findAllByNameOrderByLength(LikePatterns.contains(query), pageable);
+        return ranked.map(mapper::mapToProductResponseDto);
+    }
+
+    @Override
+    public CountedSlice<ProductResponseDto> searchByNameRanked(String query, Pageable pageable, CountMode countMode) {
+        if(countMode == CountMode.EXACT) {
+            return new CountedSlice<>(searchByNameRanked(query, pageable), CountMode.EXACT);
+        }
+        query = validationQuery(query);
+        if(pageable.getSort().isSorted()) {
+            throw new IllegalArgumentException("rank can not be combined with sort");
+        }
+        Slice<Product> ranked = databasePlatform.isPostgres()
+                ? productRepository.findSliceByNameOrderBySimilarity(query, LikePatterns.contains(query), pageable)
+                : productRepository.findSliceByNameOrderByLength(LikePatterns.contains(query), pageable);
+        Slice<ProductResponseDto> slice = ranked.map(mapper::mapToProductResponseDto);
+        if(countMode == CountMode.NONE) {
+            return new CountedSlice<>(slice, CountMode.NONE);
+        }
+        OptionalLong estimate = countEstimator.estimateByName(query);
+        if(estimate.isPresent()) {
+            return new CountedSlice<>(toEstimatedPage(slice, estimate.getAsLong()), CountMode.ESTIMATED);
+        }
+        long total = countByName(query);
+        return new CountedSlice<>(new PageImpl<>(slice.getContent(), pageable, total), CountMode.EXACT);
+    }
+
+    @Override
+    public CountedSlice<ProductResponseDto> getAll(Pageable pageable, CountMode countMode) {
+        if(countMode == CountMode.EXACT) {
+            return new CountedSlice<>(getAll(pageable), CountMode.EXACT);
         }
         validationSort(pageable.getSort());
+        Slice<ProductResponseDto> slice = productRepository.findSliceBy(pageable).map(mapper::mapToProductResponseDto);
+        if(countMode == CountMode.NONE) {
+            return new CountedSlice<>(slice, CountMode.NONE);
+        }
+        return new CountedSlice<>(toEstimatedPage(slice, countEstimator.estimateAll()), CountMode.ESTIMATED);
+    }
 
-        Page<Product> allByNameContainingIgnoreCase = productRepository.findAllByNameContainingIgnoreCase(query, pageable);
-        return allByNameContainingIgnoreCase.map(mapper::mapToProductResponseDto);
+    @Override
+    public CountedSlice<ProductResponseDto> searchByName(String query, Pageable pageable, CountMode countMode) {
+        if(countMode == CountMode.EXACT) {
+            return new CountedSlice<>(searchByName(query, pageable), CountMode.EXACT);
+        }
+        query = validationQuery(query);
+        validationSort(pageable.getSort());
+        if(nameIndex.canServe(pageable.getSort())) {
+            return new CountedSlice<>(searchByNameFromIndex(query, pageable), CountMode.EXACT);
+        }
+        Slice<Product> products = databasePlatform.isPostgres()
+                ? productRepository.findSliceByNameIlike(LikePatterns.contains(query), pageable)
+                : productRepository.findSliceByNameContainingIgnoreCase(query, pageable);
+        Slice<ProductResponseDto> slice = products.map(mapper::mapToProductResponseDto);
+        if(countMode == CountMode.NONE) {
+            return new CountedSlice<>(slice, CountMode.NONE);
+        }
+        OptionalLong estimate = countEstimator.estimateByName(query);
+        if(estimate.isPresent()) {
+            return new CountedSlice<>(toEstimatedPage(slice, estimate.getAsLong()), CountMode.ESTIMATED);
+        }
+        long total = countByName(query);
+        return new CountedSlice<>(new PageImpl<>(slice.getContent(), pageable, total), CountMode.EXACT);
+    }
+
+    @Override
+    public CountedSlice<Map<String, Object>> getAll(Pageable pageable, CountMode countMode, ProductFields fields) {
+        if(!fields.isSummary()) {
+            return select(getAll(pageable, countMode), fields);
+        }
+        validationSort(pageable.getSort());
+        if(countMode == CountMode.EXACT) {
+            return new CountedSlice<>(productRepository.findSummariesBy(pageable).map(fields::select), CountMode.EXACT);
+        }
+        Slice<Map<String, Object>> slice = productRepository.findSummarySliceBy(pageable).map(fields::select);
+        if(countMode == CountMode.NONE) {
+            return new CountedSlice<>(slice, CountMode.NONE);
+        }
+        return new CountedSlice<>(toEstimatedPage(slice, countEstimator.estimateAll()), CountMode.ESTIMATED);
+    }
+
+    /**
+     * Filtered listing as one query with all filters in its WHERE clause. Planner estimates only exist for the
+     * unfiltered listing, so {@code estimated} is answered with an exact count here.
+     */
+    @Override
+    public CountedSlice<ProductResponseDto> getAll(ProductFilter filter, Pageable pageable, CountMode countMode) {
+        if(filter.isEmpty()) {
+            return getAll(pageable, countMode);
+        }
+        validationSort(pageable.getSort());
+        Specification<Product> specification = filter.toSpecification();
+        if(countMode == CountMode.NONE) {
+            Slice<Product> slice = productRepository.findBy(specification, query -> query.slice(pageable));
+            return new CountedSlice<>(slice.map(mapper::mapToProductResponseDto), CountMode.NONE);
+        }
+        Page<Product> page = productRepository.findAll(specification, pageable);
+        return new CountedSlice<>(page.map(mapper::mapToProductResponseDto), CountMode.EXACT);
+    }
+
+    @Override
+    public CountedSlice<Map<String, Object>> getAll(ProductFilter filter, Pageable pageable, CountMode countMode, ProductFields fields) {
+        if(filter.isEmpty()) {
+            return getAll(pageable, countMode, fields);
+        }
+        if(!fields.isSummary()) {
+            return select(getAll(filter, pageable, countMode), fields);
+        }
+        validationSort(pageable.getSort());
+        Specification<Product> specification = filter.toSpecification();
+        if(countMode == CountMode.NONE) {
+            Slice<ProductSummary> slice = productRepository.findBy(specification,
+                    query -> query.as(ProductSummary.class).slice(pageable));
+            return new CountedSlice<>(slice.map(fields::select), CountMode.NONE);
+        }
+        Page<ProductSummary> page = productRepository.findBy(specification,
+                query -> query.as(ProductSummary.class).page(pageable));
+        return new CountedSlice<>(page.map(fields::select), CountMode.EXACT);
+    }
+
+    @Override
+    public CountedSlice<Map<String, Object>> searchByName(String query, Pageable pageable, CountMode countMode, ProductFields fields) {
+        if(!fields.isSummary()) {
+            return select(searchByName(query, pageable, countMode), fields);
+        }
+        query = validationQuery(query);
+        validationSort(pageable.getSort());
+        if(nameIndex.canServe(pageable.getSort())) {
+            ProductNameIndex.Hits hits = nameIndex.search(query, pageable);
+            Map<Long, ProductSummary> productsById = productRepository.findSummariesByIdIn(hits.ids()).stream()
+                    .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+            List<Map<String, Object>> content = hits.ids().stream()
+                    .map(productsById::get)
+                    .filter(Objects::nonNull)
+                    .map(fields::select)
+                    .toList();
+            return new CountedSlice<>(new PageImpl<>(content, pageable, hits.total()), CountMode.EXACT);
+        }
+        if(countMode == CountMode.EXACT) {
+            Page<ProductSummary> page = databasePlatform.isPostgres()
+                    ? productRepository.findSummariesByNameIlike(LikePatterns.contains(query), pageable)
+                    : productRepository.findSummariesByNameContainingIgnoreCase(query, pageable);
+            return new CountedSlice<>(page.map(fields::select), CountMode.EXACT);
+        }
+        Slice<ProductSummary> products = databasePlatform.isPostgres()
+                ? productRepository.findSummarySliceByNameIlike(LikePatterns.contains(query), pageable)
+                : productRepository.findSummarySliceByNameContainingIgnoreCase(query, pageable);
+        Slice<Map<String, Object>> slice = products.map(fields::select);
+        if(countMode == CountMode.NONE) {
+            return new CountedSlice<>(slice, CountMode.NONE);
+        }
+        OptionalLong estimate = countEstimator.estimateByName(query);
+        if(estimate.isPresent()) {
+            return new CountedSlice<>(toEstimatedPage(slice, estimate.getAsLong()), CountMode.ESTIMATED);
+        }
+        long total = countByName(query);
+        return new CountedSlice<>(new PageImpl<>(slice.getContent(), pageable, total), CountMode.EXACT);
+    }
+
+    @Override
+    public CursorPageResponseDto<ProductResponseDto> getAllByCursor(String cursor, int size, Sort sort) {
+        validationSort(sort);
+        ScrollPosition position = cursorCodec.decode(cursor, sort);
+        Window<Product> window = productRepository.findBy(position, sort, Limit.of(size));
+        return toCursorPage(window, sort);
+    }
+
+    /**
+     * Keyset page with the filters in the WHERE clause; the cursor carries only the position, so every page
+     * has to be requested with the same filters.
+     */
+    @Override
+    public CursorPageResponseDto<ProductResponseDto> getAllByCursor(ProductFilter filter, String cursor, int size, Sort sort) {
+        if(filter.isEmpty()) {
+            return getAllByCursor(cursor, size, sort);
+        }
+        validationSort(sort);
+        ScrollPosition position = cursorCodec.decode(cursor, sort);
+        Window<Product> window = productRepository.findBy(filter.toSpecification(),
+                fluentQuery -> fluentQuery.sortBy(sort).limit(size).scroll(position));
+        return toCursorPage(window, sort);
+    }
+
+    @Override
+    public CursorPageResponseDto<ProductResponseDto> searchByNameByCursor(String query, String cursor, int size, Sort sort) {
+        query = validationQuery(query);
+        validationSort(sort);
+        ScrollPosition position = cursorCodec.decode(cursor, sort);
+        Window<Product> window = productRepository.findBy(ProductRepository.nameIlike(LikePatterns.contains(query)),
+                fluentQuery -> fluentQuery.sortBy(sort).limit(size).scroll(position));
+        return toCursorPage(window, sort);
     }
 
     @Override
     @Transactional
     public ProductResponseDto updateProduct(Long id, ProductUpdateRequestDto productUpdateRequestDto) {
+        return updateProduct(id, productUpdateRequestDto, null);
+    }
+
+    @Override
+    @Transactional
+    public ProductResponseDto updateProduct(Long id, ProductUpdateRequestDto productUpdateRequestDto, Long expectedVersion) {
         Product product = productRepository.findById(id).orElseThrow(() -> new NotFoundException(String.format("Product with id: %s not found", id)));
+        validationVersion(product, expectedVersion);
+        ProductSnapshot before = ProductSnapshot.of(product);
         product.setName(productUpdateRequestDto.getName());
         product.setDescription(productUpdateRequestDto.getDescription());
         product.setPrice(productUpdateRequestDto.getPrice());
         product.setStock(productUpdateRequestDto.getStock());
-        product = productRepository.save(product);
+        product = productRepository.saveAndFlush(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, ProductSnapshot.of(product)));
         return mapper.mapToProductResponseDto(product);
     }
 
+    @Override
+    @Transactional
+    public StockResponseDto adjustStock(Long id, int delta) {
+        StockResponseDto adjusted = tryAdjustStock(id, delta);
+        if(adjusted == null) {
+            throw new InsufficientStockException(List.of(id));
+        }
+        return adjusted;
+    }
+
+    @Override
+    @Transactional
+    public List<StockResponseDto> adjustStock(List<StockAdjustmentItemDto> adjustments) {
+        Map<Long, Integer> deltaById = new TreeMap<>();
+        try {
+            for (StockAdjustmentItemDto adjustment : adjustments) {
+                deltaById.merge(adjustment.getProductId(), adjustment.getDelta(), Math::addExact);
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("delta out of range");
+        }
+        List<StockResponseDto> adjusted = new ArrayList<>();
+        List<Long> insufficient = new ArrayList<>();
+        deltaById.forEach((id, delta) -> {
+            StockResponseDto stock = tryAdjustStock(id, delta);
+            if(stock == null) {
+                insufficient.add(id);
+            } else {
+                adjusted.add(stock);
+            }
+        });
+        if(!insufficient.isEmpty()) {
+            throw new InsufficientStockException(insufficient);
+        }
+        return adjusted;
+    }
+
     @Override
     @Transactional
     public void deleteProduct(Long id) {
-        productRepository.findById(id).orElseThrow(() -> new NotFoundException(String.format("Product with id: %s not found", id)));
+        deleteProduct(id, null);
+    }
+
+    @Override
+    @Transactional
+    public void deleteProduct(Long id, Long expectedVersion) {
+        Product product = productRepository.findById(id).orElseThrow(() -> new NotFoundException(String.format("Product with id: %s not found", id)));
+        validationVersion(product, expectedVersion);
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(ProductSnapshot.of(product)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CatalogAggregatesDto getAggregates() {
+        CatalogAggregates.Totals totals = readyAggregates().totals();
+        return CatalogAggregatesDto.builder()
+                .products(totals.products())
+                .outOfStock(totals.outOfStock())
+                .totalStock(totals.totalStock())
+                .stockValue(totals.stockValue())
+                .priceBuckets(toPriceBucketDtos(totals))
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PriceFacetsDto getPriceFacets(String query) {
+        query = validationQuery(query);
+        CatalogAggregates.Totals totals = aggregates.totalsByName(query);
+        return PriceFacetsDto.builder()
+                .query(query)
+                .products(totals.products())
+                .outOfStock(totals.outOfStock())
+                .priceBuckets(toPriceBucketDtos(totals))
+                .build();
+    }
+
+    private CatalogAggregates readyAggregates() {
+        if(!aggregates.isReady()) {
+            throw new AggregatesNotReadyException("Catalog aggregates are not loaded or may be stale", 1);
+        }
+        return aggregates;
+    }
+
+    private static List<PriceBucketDto> toPriceBucketDtos(CatalogAggregates.Totals totals) {
+        return totals.priceBuckets().stream()
+                .map(bucket -> PriceBucketDto.builder().from(bucket.from()).to(bucket.to()).count(bucket.count()).build())
+                .toList();
+    }
+
+    private Page<ProductResponseDto> searchByNameFromIndex(String query, Pageable pageable) {
+        ProductNameIndex.Hits hits = nameIndex.search(query, pageable);
+        Map<Long, Product> productsById = productRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductResponseDto> content = hits.ids().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(mapper::mapToProductResponseDto)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.total());
+    }
+
+    private static CountedSlice<Map<String, Object>> select(CountedSlice<ProductResponseDto> products, ProductFields fields) {
+        return new CountedSlice<>(products.slice().map(fields::select), products.countMode());
+    }
+
+    private static <T> Page<T> toEstimatedPage(Slice<T> slice, long estimate) {
+        long seen = slice.getPageable().isPaged() ? slice.getPageable().getOffset() + slice.getNumberOfElements() : slice.getNumberOfElements();
+        long total = Math.max(estimate, slice.hasNext() ? seen + 1 : seen);
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    private CursorPageResponseDto<ProductResponseDto> toCursorPage(Window<Product> window, Sort sort) {
+        String nextCursor = null;
+        if(window.hasNext() && !window.isEmpty()) {
+            nextCursor = cursorCodec.encode((KeysetScrollPosition) window.positionAt(window.size() - 1), sort);
+        }
+        return CursorPageResponseDto.<ProductResponseDto>builder()
+                .content(window.map(mapper::mapToProductResponseDto).getContent())
+                .size(window.size())
+                .hasNext(window.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * One conditional UPDATE; returns null when the product exists but has less stock than {@code -delta}.
+     * The bounds are checked in {@code bigint}, so a delta that would push the stock past {@code int} fails
+     * the same way and is reported as a 400 instead of a database error.
+     */
+    private StockResponseDto tryAdjustStock(Long id, int delta) {
+        Optional<ProductStockView> adjusted;
+        if(databasePlatform.isPostgres()) {
+            adjusted = productRepository.adjustStockReturning(id, delta);
+        } else {
+            adjusted = productRepository.adjustStock(id, delta, Instant.now()) == 1
+                    ? productRepository.findStockById(id)
+                    : Optional.empty();
+        }
+        if(adjusted.isEmpty()) {
+            if(!productRepository.existsById(id)) {
+                throw new NotFoundException(String.format("Product with id: %s not found", id));
+            }
+            if(delta > 0) {
+                throw new IllegalArgumentException("stock out of range");
+            }
+            return null;
+        }
+        ProductStockView stock = adjusted.get();
+        eventPublisher.publishEvent(new ProductStockChangedEvent(stock.getId(), stock.getPrice(),
+                stock.getStock() - delta, stock.getStock(), stock.getVersion()));
+        return StockResponseDto.builder()
+                .id(stock.getId())
+                .stock(stock.getStock())
+                .version(stock.getVersion())
+                .build();
+    }
+
+    /**
+     * Checks an {@code If-Match} version against the product loaded for the write itself; a change committed after
+     * that load is still caught by the {@code @Version} condition of the UPDATE or DELETE.
+     */
+    private static void validationVersion(Product product, Long expectedVersion) {
+        if(expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new PreconditionFailedException(String.format("Product with id: %s has version %s, expected %s",
+                    product.getId(), product.getVersion(), expectedVersion));
+        }
+    }
+
+    private Map<String, List<String>> validationBatchItem(ProductCreateRequestDto dto) {
+        if(dto == null) {
+            return Map.of("product", List.of("must not be null"));
+        }
+        Map<String, List<String>> details = new LinkedHashMap<>();
+        for (ConstraintViolation<ProductCreateRequestDto> violation : validator.validate(dto)) {
+            details.computeIfAbsent(violation.getPropertyPath().toString(), k -> new ArrayList<>())
+                    .add(violation.getMessage());
+        }
+        return details;
+    }
+
+    private static BatchItemResultDto failedItem(int index, String code, Map<String, List<String>> details) {
+        return BatchItemResultDto.builder()
+                .index(index)
+                .status(BatchItemStatus.FAILED)
+                .code(code)
+                .details(details)
+                .build();
+    }
+
+    private long countByName(String query) {
+        return databasePlatform.isPostgres()
+                ? productRepository.countByNameIlike(LikePatterns.contains(query))
+                : productRepository.countByNameContainingIgnoreCase(query);
+    }
+
+    private static boolean isSkuViolation(DataIntegrityViolationException e) {
+        return violatedConstraint(e).contains(SKU_CONSTRAINT);
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        Throwable cause = e.getCause();
+        if(cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            return violation.getConstraintName().toLowerCase(Locale.ROOT);
+        }
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message == null ? "" : message.toLowerCase(Locale.ROOT);
+    }
+
+    private String validationQuery(String query) {
+        if(query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query is null or empty");
+        }
+        query = query.trim();
+        if(query.length() < 2 || query.length() > 120){
+            throw new IllegalArgumentException("query length should be between 2 and 120");
+        }
+        return query;
     }
 
-    private void validationSort(Sort sort) {
+    static Sort validationSort(Sort sort) {
         if(sort.isUnsorted()){
-            return;
+            return sort;
         }
         Set<String> validFields = Set.of("name", "price", "stock", "createdAt", "sku");
         sort.stream().filter(order -> !validFields.contains(order.getProperty())).forEach(order -> {
             throw new IllegalArgumentException(String.format("Invalid sort parameter: %s", order.getProperty()));
         });
+        return sort;
     }
 }
@@ -0,0 +1,333 @@
+package com.catalogservice.service.aggregate;
+
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductSnapshot;
+import com.catalogservice.event.ProductStockChangedEvent;
+import com.catalogservice.repository.LikePatterns;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalog totals and a price histogram kept in memory, so dashboards read them without scanning the table.
+ * Enabled with {@code catalog.aggregates.enabled} (default true): loaded after startup with one grouped query and
+ * then kept current from the before/after snapshots of committed {@link ProductChangedEvent}s and
+ * {@link ProductStockChangedEvent}s. Only the counters are kept, so memory does not grow with the catalog.
+ * <p>
+ * Changes committed on other nodes carry no snapshots; {@link #refresh()} loads the counters again for them, at most
+ * once per {@code catalog.aggregates.refresh-min-interval}. A load that overlaps a local change is repeated, since the
+ * change may or may not be part of what it read; a change whose listener runs only after the load has been swapped
+ * in can still be counted twice until the next load. Once {@link #trustUntil} has granted a lease that has run out,
+ * the totals are not ready until it is renewed, since changes from other nodes may be missed meanwhile.
+ * <p>
+ * Buckets are bounded by {@code catalog.aggregates.price-buckets}: {@code 10,50} gives {@code [0, 10)},
+ * {@code [10, 50)} and {@code [50, ∞)}. {@link #totalsByName(String)} computes the same buckets in SQL for a name search.
+ */
+@Slf4j
+@Component
+public class CatalogAggregates {
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final boolean enabled;
+    private final Duration refreshMinInterval;
+    private final BigDecimal[] bounds;
+    private final String totalsSql;
+    private final String totalsByNameIlikeSql;
+    private final String totalsByNameLikeSql;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long[] bucketCounts;
+    private long products;
+    private long outOfStock;
+    private long totalStock;
+    private BigDecimal stockValue = BigDecimal.ZERO;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final AtomicBoolean changedWhileLoading = new AtomicBoolean();
+    private volatile boolean loadRequested;
+    private volatile boolean ready;
+    private volatile boolean leased;
+    private volatile long trustedUntil;
+
+    public CatalogAggregates(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform,
+                             @Value("${catalog.aggregates.enabled:true}") boolean enabled,
+                             @Value("${catalog.aggregates.refresh-min-interval:1s}") Duration refreshMinInterval,
+                             @Value("${catalog.aggregates.price-buckets:10,50,100,500,1000}") String priceBuckets,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.enabled = enabled;
+        this.refreshMinInterval = refreshMinInterval;
+        this.bounds = parseBounds(priceBuckets);
+        this.bucketCounts = new long[bounds.length + 1];
+        this.totalsSql = totalsSql("");
+        this.totalsByNameIlikeSql = totalsSql(" WHERE name ILIKE ? ESCAPE '\\'");
+        this.totalsByNameLikeSql = totalsSql(" WHERE upper(name) LIKE upper(?) ESCAPE '\\'");
+        Gauge.builder("catalog.products", this, aggregates -> aggregates.totals().products()).register(meterRegistry);
+        Gauge.builder("catalog.products.out.of.stock", this, aggregates -> aggregates.totals().outOfStock()).register(meterRegistry);
+        Gauge.builder("catalog.stock.value", this, aggregates -> aggregates.totals().stockValue().doubleValue()).register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready && !(leased && System.nanoTime() - trustedUntil > 0);
+    }
+
+    /**
+     * Serves the totals only until {@code deadline}, a {@link System#nanoTime()} value.
+     */
+    public void trustUntil(long deadline) {
+        trustedUntil = deadline;
+        leased = true;
+    }
+
+    public Totals totals() {
+        lock.readLock().lock();
+        try {
+            return new Totals(products, outOfStock, totalStock, stockValue, buckets(bucketCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totals over the products whose name contains {@code query}, computed by the database in one grouped query.
+     */
+    public Totals totalsByName(String query) {
+        return queryTotals(databasePlatform.isPostgres() ? totalsByNameIlikeSql : totalsByNameLikeSql, LikePatterns.contains(query));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if(!enabled) {
+            return;
+        }
+        requestLoad();
+    }
+
+    /**
+     * Stops serving the totals and loads them again, for when changes may have been missed.
+     */
+    public void reload() {
+        if(!enabled) {
+            return;
+        }
+        ready = false;
+        requestLoad();
+    }
+
+    /**
+     * Loads the totals again in the background while the current ones stay served, for changes made on other nodes.
+     */
+    public void refresh() {
+        if(!enabled) {
+            return;
+        }
+        requestLoad();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if(!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            markChangedWhileLoading();
+            if(event.before() != null) {
+                add(event.before(), -1);
+            }
+            if(event.after() != null) {
+                add(event.after(), 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        if(!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            markChangedWhileLoading();
+            add(event.price(), event.previousStock(), -1);
+            add(event.price(), event.stock(), 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void requestLoad() {
+        loadRequested = true;
+        if(loading.compareAndSet(false, true)) {
+            Thread loader = new Thread(this::load, "catalog-aggregates-load");
+            loader.setDaemon(true);
+            loader.start();
+        }
+    }
+
+    void load() {
+        while (true) {
+            loadRequested = false;
+            try {
+                loadOnce();
+            } catch (RuntimeException e) {
+                log.error("CATALOG_AGGREGATES_LOAD_FAILED ready={}", ready, e);
+            }
+            loading.set(false);
+            if(!loadRequested || !loading.compareAndSet(false, true)) {
+                return;
+            }
+            sleep(refreshMinInterval);
+        }
+    }
+
+    private void loadOnce() {
+        long started = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            changedWhileLoading.set(false);
+            Totals loaded = queryTotals(totalsSql);
+            lock.writeLock().lock();
+            try {
+                if(changedWhileLoading.get() && attempt < MAX_LOAD_ATTEMPTS) {
+                    continue;
+                }
+                System.arraycopy(toCounts(loaded), 0, bucketCounts, 0, bucketCounts.length);
+                products = loaded.products();
+                outOfStock = loaded.outOfStock();
+                totalStock = loaded.totalStock();
+                stockValue = loaded.stockValue();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("CATALOG_AGGREGATES_READY products={} attempts={} tookMs={}",
+                    loaded.products(), attempt, (System.nanoTime() - started) / 1_000_000);
+            return;
+        }
+    }
+
+    private void markChangedWhileLoading() {
+        if(loading.get()) {
+            changedWhileLoading.set(true);
+        }
+    }
+
+    private Totals queryTotals(String sql, Object... args) {
+        long[] counts = new long[bucketCounts.length];
+        long[] sums = new long[3];
+        BigDecimal[] value = {BigDecimal.ZERO};
+        jdbcTemplate.query(sql, resultSet -> {
+            long count = resultSet.getLong("products");
+            counts[resultSet.getInt("bucket")] = count;
+            sums[0] += count;
+            sums[1] += resultSet.getLong("out_of_stock");
+            sums[2] += resultSet.getLong("total_stock");
+            value[0] = value[0].add(resultSet.getBigDecimal("stock_value"));
+        }, args);
+        return new Totals(sums[0], sums[1], sums[2], value[0], buckets(counts));
+    }
+
+    private void add(ProductSnapshot snapshot, int sign) {
+        add(snapshot.price(), snapshot.stock(), sign);
+    }
+
+    private void add(BigDecimal price, int stock, int sign) {
+        bucketCounts[bucket(price)] += sign;
+        products += sign;
+        totalStock += (long) sign * stock;
+        if(stock == 0) {
+            outOfStock += sign;
+        } else {
+            stockValue = stockValue.add(price.multiply(BigDecimal.valueOf((long) sign * stock)));
+        }
+    }
+
+    private int bucket(BigDecimal price) {
+        int index = Arrays.binarySearch(bounds, price);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private List<PriceBucket> buckets(long[] counts) {
+        List<PriceBucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            buckets.add(new PriceBucket(i == 0 ? BigDecimal.ZERO : bounds[i - 1], i < bounds.length ? bounds[i] : null, counts[i]));
+        }
+        return buckets;
+    }
+
+    private static long[] toCounts(Totals totals) {
+        return totals.priceBuckets().stream().mapToLong(PriceBucket::count).toArray();
+    }
+
+    /**
+     * One row per non-empty bucket; the bounds come from configuration and are validated numbers, so they are inlined.
+     */
+    private String totalsSql(String where) {
+        StringBuilder bucket = new StringBuilder();
+        if(bounds.length == 0) {
+            bucket.append('0');
+        } else {
+            bucket.append("CASE");
+            for (int i = 0; i < bounds.length; i++) {
+                bucket.append(" WHEN price < ").append(bounds[i].toPlainString()).append(" THEN ").append(i);
+            }
+            bucket.append(" ELSE ").append(bounds.length).append(" END");
+        }
+        return """
+                SELECT bucket, count(*) AS products, sum(CASE WHEN stock = 0 THEN 1 ELSE 0 END) AS out_of_stock,
+                       sum(CAST(stock AS BIGINT)) AS total_stock, sum(price * stock) AS stock_value
+                FROM (SELECT %s AS bucket, price, stock FROM product%s) bucketed
+                GROUP BY bucket""".formatted(bucket, where);
+    }
+
+    private static BigDecimal[] parseBounds(String priceBuckets) {
+        BigDecimal[] parsed = Arrays.stream(priceBuckets.split(","))
+                .map(String::trim)
+                .filter(bound -> !bound.isEmpty())
+                .map(BigDecimal::new)
+                .toArray(BigDecimal[]::new);
+        for (int i = 0; i < parsed.length; i++) {
+            if(parsed[i].signum() <= 0 || (i > 0 && parsed[i].compareTo(parsed[i - 1]) <= 0)) {
+                throw new IllegalArgumentException("catalog.aggregates.price-buckets must be positive and ascending");
+            }
+        }
+        return parsed;
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * {@code to} is exclusive and null for the last, open-ended bucket.
+     */
+    public record PriceBucket(BigDecimal from, BigDecimal to, long count) {
+    }
+
+    public record Totals(long products, long outOfStock, long totalStock, BigDecimal stockValue, List<PriceBucket> priceBuckets) {
+    }
+}
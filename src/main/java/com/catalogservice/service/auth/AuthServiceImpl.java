@@ -11,51 +11,72 @@ import com.catalogservice.exceptions.DuplicateEmailException;
 import com.catalogservice.exceptions.DuplicateUsernameException;
 import com.catalogservice.exceptions.InvalidCredentialsException;
 import com.catalogservice.mappers.UserMapper;
-import com.catalogservice.repository.RoleRepository;
 import com.catalogservice.repository.UserRepository;
+import com.catalogservice.security.PasswordHasher;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
+@Timed(value = "auth.service", histogram = true)
 @Slf4j
 public class AuthServiceImpl implements AuthService {
+    private static final String EMAIL_CONSTRAINT = "ux_users_email_ci";
+    private static final String USERNAME_CONSTRAINT = "ux_users_username_ci";
+
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RoleCache roleCache;
+    private final PasswordHasher passwordHasher;
     private final UserMapper userMapper;
 
+    /**
+     * Inserts without pre-checks; the unique indexes {@code ux_users_email_ci} and {@code ux_users_username_ci}
+     * decide duplicates, so concurrent signups with the same email or username cannot both succeed.
+     * Not transactional: the password is hashed before any connection is taken and {@code saveAndFlush}
+     * runs in a transaction of its own.
+     */
     @Override
-    @Transactional
     public RegisterResponseDto register(RegisterRequestDto registerRequestDto) {
         String email = registerRequestDto.getEmail().trim().toLowerCase();
         String username = registerRequestDto.getUsername().trim();
-        if(userRepository.existsByEmailIgnoreCase(email)) {
-            throw new DuplicateEmailException("Email already exists");
-        }
-        if(userRepository.existsByUsernameIgnoreCase(username)) {
-            throw new DuplicateUsernameException("Username already exists");
-        }
-        Optional<Role> roleUser = roleRepository.findByName("ROLE_USER");
+        String passwordHash = passwordHasher.encode(registerRequestDto.getPassword());
+        Optional<Role> roleUser = roleCache.findByName("ROLE_USER");
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
-        user.setPasswordHash(passwordEncoder.encode(registerRequestDto.getPassword()));
+        user.setPasswordHash(passwordHash);
         user.setEnabled(true);
         user.addRole(roleUser.orElseThrow(()->new IllegalStateException("Missing seed role ROLE_USER")));
-        return userMapper.mapToRegisterResponseDto(userRepository.save(user));
+        try {
+            return userMapper.mapToRegisterResponseDto(userRepository.saveAndFlush(user));
+        } catch (DataIntegrityViolationException e) {
+            String constraint = violatedConstraint(e);
+            if(constraint.contains(EMAIL_CONSTRAINT)) {
+                throw new DuplicateEmailException("Email already exists");
+            }
+            if(constraint.contains(USERNAME_CONSTRAINT)) {
+                throw new DuplicateUsernameException("Username already exists");
+            }
+            throw e;
+        }
     }
 
+    /**
+     * Not transactional: the user and roles are loaded in the repository's own read-only transaction and the
+     * password is checked after it has ended, so the BCrypt work never holds a pooled connection.
+     */
     @Override
     public LoginResponseDto login(LoginRequestDto loginRequestDto) {
         String requestEmail = loginRequestDto.getEmail().trim().toLowerCase();
-        User user = userRepository.findByEmailIgnoreCase(requestEmail)
+        User user = userRepository.findWithRolesByEmail(requestEmail)
                 .orElseThrow(() -> {
                     log.warn("LOGIN_FAIL reason=INVALID_CREDENTIALS email={}", maskEmail(requestEmail));
                     return new InvalidCredentialsException("Invalid credentials");
@@ -65,7 +86,7 @@ public class AuthServiceImpl implements AuthService {
             log.warn("LOGIN_FAIL reason=ACCOUNT_DISABLED email={}", maskEmail(requestEmail));
             throw new AccountDisabledException("Account disabled");
         }
-        if(!passwordEncoder.matches(loginRequestDto.getPassword(), user.getPasswordHash())) {
+        if(!passwordHasher.matches(loginRequestDto.getPassword(), user.getPasswordHash())) {
             log.warn("LOGIN_FAIL reason=INVALID_CREDENTIALS email={}", maskEmail(requestEmail));
             throw new InvalidCredentialsException("Invalid credentials");
         }
@@ -81,7 +102,16 @@ public class AuthServiceImpl implements AuthService {
                 .build();
     }
 
-    private String maskEmail(String email) {
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        Throwable cause = e.getCause();
+        if(cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            return violation.getConstraintName().toLowerCase(Locale.ROOT);
+        }
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message == null ? "" : message.toLowerCase(Locale.ROOT);
+    }
+
+    static String maskEmail(String email) {
         if(email.isEmpty()) {
             return "<empty>";
         }
@@ -94,7 +124,7 @@ public class AuthServiceImpl implements AuthService {
         String maskedLocal = maskPlain(local);
         return maskedLocal + "@" + domain;
     }
-    private String maskPlain(String s) {
+    private static String maskPlain(String s) {
         if(s.length() <= 2) return s;
         String head = s.substring(0, 2);
         String tailMasked = "*".repeat(s.length() - 2);
@@ -0,0 +1,74 @@
+package com.catalogservice.service.auth;
+
+import com.catalogservice.entity.Role;
+import com.catalogservice.repository.RoleRepository;
+import com.catalogservice.service.cache.CacheInvalidationNotifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * All {@link Role}s by name, loaded after startup. Roles are seeded by migrations and never change at runtime,
+ * so signups do not query them; after adding a role, call {@link #reload()} (actuator {@code POST /actuator/roles}),
+ * which also asks the other nodes to reload theirs.
+ * A name that is not cached triggers one reload before it is reported missing.
+ * The cached roles are detached and only used as references when linking users.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "roles")
+public class RoleCache {
+    private final RoleRepository roleRepository;
+    private final CacheInvalidationNotifier invalidationNotifier;
+    private volatile Map<String, Role> rolesByName;
+
+    public RoleCache(RoleRepository roleRepository, CacheInvalidationNotifier invalidationNotifier) {
+        this.roleRepository = roleRepository;
+        this.invalidationNotifier = invalidationNotifier;
+    }
+
+    public Optional<Role> findByName(String name) {
+        Map<String, Role> roles = rolesByName;
+        Role role = roles == null ? null : roles.get(name);
+        if(role == null) {
+            role = refresh().get(name);
+        }
+        return Optional.ofNullable(role);
+    }
+
+    @ReadOperation
+    public List<String> names() {
+        Map<String, Role> roles = rolesByName;
+        return roles == null ? List.of() : roles.keySet().stream().sorted().toList();
+    }
+
+    @WriteOperation
+    public List<String> reload() {
+        refresh();
+        invalidationNotifier.rolesChanged();
+        return names();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    public Map<String, Role> refresh() {
+        Map<String, Role> roles = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+        rolesByName = roles;
+        log.info("ROLE_CACHE_LOADED roles={}", roles.keySet());
+        return roles;
+    }
+}
@@ -0,0 +1,295 @@
+package com.catalogservice.service.cache;
+
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductSnapshot;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.repository.ProductSummary;
+import com.catalogservice.service.aggregate.CatalogAggregates;
+import com.catalogservice.service.auth.RoleCache;
+import com.catalogservice.service.search.ProductNameIndex;
+import com.catalogservice.service.sku.SkuBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies product changes committed by other nodes, as announced by {@link CacheInvalidationNotifier}, to this node's
+ * in-memory state: fences {@link ProductCache} entries, advances {@link CatalogRevision}, and re-reads the changed rows
+ * from the primary for the name index and SKU filter; the catalog aggregates, which keep only counters, are refreshed
+ * from the database instead. Role reloads are applied to {@link RoleCache}.
+ * <p>
+ * Staleness is bounded by {@code catalog.cache.invalidation.max-staleness}: every {@code heartbeat-interval} the
+ * listening connection notifies itself, and once that notification comes back, every change committed before it was
+ * sent has been applied. Each returned heartbeat renews the lease of the product cache, the catalog revision, the name
+ * index and the aggregates until its send time plus {@code max-staleness}; if the channel stalls or drops, they stop
+ * serving in-memory answers when the lease runs out. A connection whose heartbeats have not come back for
+ * {@code max-staleness} is closed and opened again. After a reconnect the caches are cleared and the name index and
+ * aggregates are reloaded, since notifications sent while disconnected are lost.
+ * <p>
+ * The listening connection is opened from {@code spring.datasource.*} outside the application pool: it stays open
+ * for the life of the process, which would permanently take a pool slot and keep Hikari from retiring it. It uses
+ * TCP keepalive and a socket timeout of {@code max-staleness}, so a peer that vanished without closing the connection
+ * fails the next read instead of blocking it.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationListener {
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheInvalidationNotifier notifier;
+    private final ProductCache productCache;
+    private final CatalogRevision catalogRevision;
+    private final ProductRepository productRepository;
+    private final ProductNameIndex nameIndex;
+    private final SkuBloomFilter skuFilter;
+    private final CatalogAggregates aggregates;
+    private final RoleCache roleCache;
+    private final TransactionTemplate primaryTransaction;
+    private final long heartbeatNanos;
+    private final long maxStalenessNanos;
+    private final Duration reconnectDelay;
+    private final Timer lag;
+    private final Counter received;
+    private final Counter resyncs;
+
+    private volatile boolean running;
+    private volatile long confirmedAt;
+    private volatile Thread thread;
+
+    public CacheInvalidationListener(DataSourceProperties dataSourceProperties, CacheInvalidationNotifier notifier, ProductCache productCache,
+                                     CatalogRevision catalogRevision, ProductRepository productRepository,
+                                     ProductNameIndex nameIndex, SkuBloomFilter skuFilter, CatalogAggregates aggregates,
+                                     RoleCache roleCache, PlatformTransactionManager transactionManager,
+                                     @Value("${catalog.cache.invalidation.heartbeat-interval:1s}") Duration heartbeatInterval,
+                                     @Value("${catalog.cache.invalidation.max-staleness:5s}") Duration maxStaleness,
+                                     @Value("${catalog.cache.invalidation.reconnect-delay:1s}") Duration reconnectDelay,
+                                     MeterRegistry meterRegistry) {
+        if(maxStaleness.compareTo(heartbeatInterval.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("catalog.cache.invalidation.max-staleness must be at least twice the heartbeat interval");
+        }
+        this.dataSourceProperties = dataSourceProperties;
+        this.notifier = notifier;
+        this.productCache = productCache;
+        this.catalogRevision = catalogRevision;
+        this.productRepository = productRepository;
+        this.nameIndex = nameIndex;
+        this.skuFilter = skuFilter;
+        this.aggregates = aggregates;
+        this.roleCache = roleCache;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.reconnectDelay = reconnectDelay;
+        this.lag = Timer.builder("cache.invalidation.lag")
+                .description("From the commit of a change on another node until it is applied here")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        this.received = Counter.builder("cache.invalidation.changes").register(meterRegistry);
+        this.resyncs = Counter.builder("cache.invalidation.resyncs").register(meterRegistry);
+        Gauge.builder("cache.invalidation.staleness", this, CacheInvalidationListener::stalenessSeconds)
+                .description("Age of the last confirmed heartbeat: the bound on missed changes right now")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if(!notifier.isActive()) {
+            return;
+        }
+        trustUntil(System.nanoTime());
+        running = true;
+        Thread listener = new Thread(this::run, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        thread = listener;
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread listener = thread;
+        if(listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void run() {
+        SimpleDriverDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+        dataSource.setConnectionProperties(connectionProperties());
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                listen(connection, reconnect);
+            } catch (SQLException | RuntimeException e) {
+                if(!running) {
+                    return;
+                }
+                log.warn("CACHE_INVALIDATION_DISCONNECTED retryInMs={} msg={}", reconnectDelay.toMillis(), e.getMessage());
+                sleep(reconnectDelay);
+            }
+            reconnect = true;
+        }
+    }
+
+    private void listen(Connection connection, boolean reconnect) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + notifier.channel());
+        }
+        resync(reconnect);
+        log.info("CACHE_INVALIDATION_LISTENING channel={} node={}", notifier.channel(), notifier.node());
+        try (PreparedStatement heartbeat = connection.prepareStatement("select pg_notify(?, ?)")) {
+            heartbeat.setString(1, notifier.channel());
+            long listeningSince = System.nanoTime();
+            long nextHeartbeat = listeningSince;
+            while (running) {
+                long now = System.nanoTime();
+                long confirmed = Math.max(listeningSince, confirmedAt);
+                if(now - confirmed > maxStalenessNanos) {
+                    throw new SQLException("no heartbeat returned for " + TimeUnit.NANOSECONDS.toMillis(now - confirmed) + " ms");
+                }
+                if(now - nextHeartbeat >= 0) {
+                    heartbeat.setString(2, new InvalidationMessage(InvalidationMessage.Kind.HEARTBEAT, notifier.node(), now, List.of()).encode());
+                    heartbeat.execute();
+                    nextHeartbeat = now + heartbeatNanos;
+                }
+                int waitMillis = (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextHeartbeat - System.nanoTime()));
+                PGNotification[] notifications = pgConnection.getNotifications(waitMillis);
+                if(notifications != null) {
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies one payload received on the channel.
+     */
+    public void handle(String payload) {
+        InvalidationMessage message;
+        try {
+            message = InvalidationMessage.decode(payload);
+        } catch (IllegalArgumentException e) {
+            log.warn("CACHE_INVALIDATION_IGNORED payload={}", payload);
+            return;
+        }
+        boolean own = notifier.node().equals(message.node());
+        switch (message.kind()) {
+            case HEARTBEAT -> {
+                if(own) {
+                    confirmedAt = message.timestamp();
+                    trustUntil(message.timestamp() + maxStalenessNanos);
+                }
+            }
+            case ROLES -> {
+                if(!own) {
+                    roleCache.refresh();
+                }
+            }
+            case PRODUCTS -> {
+                if(!own) {
+                    apply(message.changes());
+                    lag.record(Math.max(0, System.currentTimeMillis() - message.timestamp()), TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    private void apply(List<InvalidationMessage.Change> changes) {
+        received.increment(changes.size());
+        for (InvalidationMessage.Change change : changes) {
+            productCache.fenceRemote(change.id(), change.version(), change.deleted());
+        }
+        catalogRevision.advance();
+        List<Long> ids = changes.stream().filter(change -> !change.deleted()).map(InvalidationMessage.Change::id).toList();
+        Map<Long, ProductSummary> rows = ids.isEmpty() ? Map.of() : primaryTransaction.execute(status ->
+                productRepository.findSummariesByIdIn(ids).stream()
+                        .collect(Collectors.toMap(ProductSummary::id, Function.identity())));
+        for (InvalidationMessage.Change change : changes) {
+            ProductSummary row = rows.get(change.id());
+            if(row == null) {
+                ProductChangedEvent deleted = ProductChangedEvent.deleted(
+                        new ProductSnapshot(change.id(), null, null, null, null, change.version()));
+                nameIndex.onProductChanged(deleted);
+                continue;
+            }
+            ProductChangedEvent changed = ProductChangedEvent.created(
+                    new ProductSnapshot(row.id(), row.name(), row.sku(), row.price(), row.stock(), row.version()));
+            nameIndex.onProductChanged(changed);
+            if(row.version() != null && row.version() == 0) {
+                skuFilter.onProductChanged(changed);
+            }
+        }
+        aggregates.refresh();
+    }
+
+    private void resync(boolean reconnect) {
+        productCache.invalidateAll();
+        catalogRevision.advance();
+        if(reconnect) {
+            resyncs.increment();
+            roleCache.refresh();
+            nameIndex.reload();
+            aggregates.reload();
+        }
+    }
+
+    private void trustUntil(long deadline) {
+        productCache.trustUntil(deadline);
+        catalogRevision.trustUntil(deadline);
+        nameIndex.trustUntil(deadline);
+        aggregates.trustUntil(deadline);
+    }
+
+    /**
+     * PostgreSQL driver settings of the listening connection; {@code socketTimeout} is in seconds.
+     */
+    private Properties connectionProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("socketTimeout", Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(maxStalenessNanos))));
+        return properties;
+    }
+
+    double stalenessSeconds() {
+        long confirmed = confirmedAt;
+        return confirmed == 0 ? Double.NaN : (System.nanoTime() - confirmed) / 1e9;
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
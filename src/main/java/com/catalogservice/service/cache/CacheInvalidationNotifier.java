@@ -0,0 +1,115 @@
+package com.catalogservice.service.cache;
+
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductStockChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Announces committed product changes to the other nodes on the PostgreSQL channel {@code catalog.cache.invalidation.channel}.
+ * <p>
+ * The changes of a transaction are collected as they are published and sent with {@code pg_notify} just before it
+ * commits, on its own connection: PostgreSQL delivers them exactly when the transaction commits and drops them when
+ * it rolls back, so there is no window in which a change is committed but never announced.
+ * Only active on PostgreSQL with {@code catalog.cache.invalidation.enabled} (default true).
+ */
+@Slf4j
+@Component
+public class CacheInvalidationNotifier {
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final boolean enabled;
+    private final String channel;
+    private final String node = UUID.randomUUID().toString().substring(0, 8);
+
+    public CacheInvalidationNotifier(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform,
+                                     @Value("${catalog.cache.invalidation.enabled:true}") boolean enabled,
+                                     @Value("${catalog.cache.invalidation.channel:catalog_invalidation}") String channel) {
+        if(!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("catalog.cache.invalidation.channel must be a lower-case identifier");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.enabled = enabled;
+        this.channel = channel;
+    }
+
+    public boolean isActive() {
+        return enabled && databasePlatform.isPostgres();
+    }
+
+    public String node() {
+        return node;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Long version = event.isDeleted() ? event.before().version() : event.after().version();
+        add(new InvalidationMessage.Change(event.productId(), version == null ? -1 : version, event.isDeleted()));
+    }
+
+    @EventListener
+    public void onStockChanged(ProductStockChangedEvent event) {
+        add(new InvalidationMessage.Change(event.productId(), event.version() == null ? -1 : event.version(), false));
+    }
+
+    /**
+     * Asks every node to reload its roles; sent at once, outside any transaction.
+     */
+    public void rolesChanged() {
+        if(isActive()) {
+            notify(new InvalidationMessage(InvalidationMessage.Kind.ROLES, node, System.currentTimeMillis(), List.of()).encode());
+        }
+    }
+
+    private void add(InvalidationMessage.Change change) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive() || !isActive()) {
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if(pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(change);
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.queryForList("select pg_notify(?, ?)", channel, payload);
+    }
+
+    private final class Pending implements TransactionSynchronization {
+        private final List<InvalidationMessage.Change> changes = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<String> payloads = InvalidationMessage.encodeProducts(node, System.currentTimeMillis(), changes, MAX_PAYLOAD_LENGTH);
+            payloads.forEach(CacheInvalidationNotifier.this::notify);
+            log.debug("CACHE_INVALIDATION_SENT changes={} notifications={}", changes.size(), payloads.size());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationNotifier.this);
+        }
+    }
+}
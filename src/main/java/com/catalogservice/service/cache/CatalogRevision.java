@@ -0,0 +1,52 @@
+package com.catalogservice.service.cache;
+
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductStockChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter of committed product changes seen by this node, used as the validator of list responses.
+ * The epoch is random per process, so tags from another node or an earlier run never validate.
+ * Read it before running a query: a change committed meanwhile then only makes the tag too old, never too new.
+ * Once {@link #trustUntil} has granted a lease that has run out, every read advances it, so no tag validates while
+ * changes from other nodes may be missed.
+ */
+@Component
+public class CatalogRevision {
+    private final long epoch = ThreadLocalRandom.current().nextLong() >>> 1;
+    private final AtomicLong revision = new AtomicLong();
+    private volatile boolean leased;
+    private volatile long trustedUntil;
+
+    public String current() {
+        long value = leased && System.nanoTime() - trustedUntil > 0 ? revision.incrementAndGet() : revision.get();
+        return Long.toString(epoch, 36) + "." + value;
+    }
+
+    /**
+     * Lets tags validate only until {@code deadline}, a {@link System#nanoTime()} value.
+     */
+    public void trustUntil(long deadline) {
+        trustedUntil = deadline;
+        leased = true;
+    }
+
+    public void advance() {
+        revision.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        advance();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        advance();
+    }
+}
@@ -0,0 +1,90 @@
+package com.catalogservice.service.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payload of the cross-node invalidation channel, one line of text:
+ * {@code p <node> <sentAtMillis> <id>:<version>[:d],...} for committed product changes ({@code :d} marks a delete,
+ * version {@code -1} an unknown one), {@code r <node> <sentAtMillis>} for reloaded roles and
+ * {@code h <node> <sentAtNanos>} for a node's own heartbeat.
+ */
+public record InvalidationMessage(Kind kind, String node, long timestamp, List<Change> changes) {
+
+    public enum Kind {
+        PRODUCTS("p"), ROLES("r"), HEARTBEAT("h");
+
+        private final String code;
+
+        Kind(String code) {
+            this.code = code;
+        }
+    }
+
+    public record Change(long id, long version, boolean deleted) {
+    }
+
+    public String encode() {
+        StringBuilder payload = header(kind, node, timestamp);
+        for (int i = 0; i < changes.size(); i++) {
+            append(payload, changes.get(i), i == 0);
+        }
+        return payload.toString();
+    }
+
+    /**
+     * Encodes product changes into as many payloads as needed to keep each under {@code maxLength} characters.
+     */
+    public static List<String> encodeProducts(String node, long sentAtMillis, List<Change> changes, int maxLength) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = header(Kind.PRODUCTS, node, sentAtMillis);
+        int headerLength = payload.length();
+        for (Change change : changes) {
+            int before = payload.length();
+            append(payload, change, before == headerLength);
+            if(payload.length() > maxLength && before > headerLength) {
+                payload.setLength(before);
+                payloads.add(payload.toString());
+                payload = header(Kind.PRODUCTS, node, sentAtMillis);
+                append(payload, change, true);
+            }
+        }
+        if(payload.length() > headerLength) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    public static InvalidationMessage decode(String payload) {
+        String[] parts = payload.split(" ", 4);
+        if(parts.length < 3) {
+            throw new IllegalArgumentException("Invalid invalidation message: " + payload);
+        }
+        Kind kind = switch (parts[0]) {
+            case "p" -> Kind.PRODUCTS;
+            case "r" -> Kind.ROLES;
+            case "h" -> Kind.HEARTBEAT;
+            default -> throw new IllegalArgumentException("Invalid invalidation message: " + payload);
+        };
+        List<Change> changes = new ArrayList<>();
+        if(parts.length == 4) {
+            for (String item : parts[3].split(",")) {
+                String[] fields = item.split(":");
+                changes.add(new Change(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        fields.length > 2 && "d".equals(fields[2])));
+            }
+        }
+        return new InvalidationMessage(kind, parts[1], Long.parseLong(parts[2]), changes);
+    }
+
+    private static StringBuilder header(Kind kind, String node, long timestamp) {
+        return new StringBuilder(64).append(kind.code).append(' ').append(node).append(' ').append(timestamp);
+    }
+
+    private static void append(StringBuilder payload, Change change, boolean first) {
+        payload.append(first ? ' ' : ',').append(change.id()).append(':').append(change.version());
+        if(change.deleted()) {
+            payload.append(":d");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.catalogservice.service.cache;
+
+import com.catalogservice.dto.ProductResponseDto;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductStockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Bounded read-through cache of {@link ProductResponseDto} by product id for {@code getById}.
+ * <p>
+ * A committed change replaces the entry with a version fence (the new version, or {@link Long#MAX_VALUE}
+ * for deletes). A value loaded by a transaction that started before that commit carries an older
+ * {@code @Version} and is refused, so the cache never serves a product older than the last committed change it saw.
+ * <p>
+ * Changes committed by other nodes arrive through {@link CacheInvalidationListener}, which also keeps renewing a lease
+ * with {@link #trustUntil}; once a lease was granted and has run out, the cache is bypassed until it is renewed.
+ */
+@Component
+public class ProductCache {
+    private static final String CACHE_NAME = "product";
+
+    private final boolean enabled;
+    private final Cache<Long, Entry> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private volatile boolean leased;
+    private volatile long trustedUntil;
+
+    public ProductCache(@Value("${catalog.cache.product.enabled:true}") boolean enabled,
+                        @Value("${catalog.cache.product.maximum-size:10000}") long maximumSize,
+                        @Value("${catalog.cache.product.ttl:30s}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME).register(meterRegistry);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .removalListener((Long id, Entry entry, RemovalCause cause) -> {
+                    if(cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+        Gauge.builder("cache.size", cache, Cache::estimatedSize).tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    public ProductResponseDto get(Long id) {
+        if(!enabled) {
+            return null;
+        }
+        if(leased && System.nanoTime() - trustedUntil > 0) {
+            misses.increment();
+            return null;
+        }
+        Entry entry = cache.getIfPresent(id);
+        if(entry == null || entry.value() == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public void put(ProductResponseDto product) {
+        if(!enabled || product.getId() == null || product.getVersion() == null) {
+            return;
+        }
+        long version = product.getVersion();
+        cache.asMap().compute(product.getId(), (id, current) ->
+                current == null || version >= current.version() ? new Entry(product, version) : current);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if(!enabled || event.before() == null) {
+            return;
+        }
+        long fence = event.isDeleted() || event.after().version() == null ? Long.MAX_VALUE : event.after().version();
+        fence(event.productId(), fence);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        if(!enabled) {
+            return;
+        }
+        fence(event.productId(), event.version());
+    }
+
+    /**
+     * Fences a product changed on another node; a version of {@code -1} fences it for good.
+     */
+    public void fenceRemote(Long id, long version, boolean deleted) {
+        if(enabled) {
+            fence(id, deleted || version < 0 ? Long.MAX_VALUE : version);
+        }
+    }
+
+    /**
+     * Serves cached products only until {@code deadline}, a {@link System#nanoTime()} value.
+     */
+    public void trustUntil(long deadline) {
+        trustedUntil = deadline;
+        leased = true;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private void fence(Long id, long version) {
+        cache.asMap().compute(id, (key, current) ->
+                new Entry(null, current == null ? version : Math.max(version, current.version())));
+    }
+
+    private record Entry(ProductResponseDto value, long version) {
+    }
+}
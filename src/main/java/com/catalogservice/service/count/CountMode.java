@@ -0,0 +1,24 @@
+package com.catalogservice.service.count;
+
+import java.util.Locale;
+
+public enum CountMode {
+    EXACT,
+    ESTIMATED,
+    NONE;
+
+    public static CountMode fromParam(String value) {
+        if(value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return CountMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Invalid count parameter: %s", value));
+        }
+    }
+
+    public String toParam() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,10 @@
+package com.catalogservice.service.count;
+
+import org.springframework.data.domain.Slice;
+
+/**
+ * Page of results together with the mode that produced its total: a {@link org.springframework.data.domain.Page}
+ * for {@link CountMode#EXACT} and {@link CountMode#ESTIMATED}, a plain {@link Slice} for {@link CountMode#NONE}.
+ */
+public record CountedSlice<T>(Slice<T> slice, CountMode countMode) {
+}
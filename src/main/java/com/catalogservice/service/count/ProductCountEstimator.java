@@ -0,0 +1,120 @@
+package com.catalogservice.service.count;
+
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.repository.LikePatterns;
+import com.catalogservice.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cheap row-count estimates for paged product listings.
+ * Full listings use the planner statistics ({@code pg_class.reltuples}) and fall back to an exact
+ * count cached for {@code catalog.count.refresh-interval} and refreshed in the background.
+ * Name searches use the planner row estimate of the trigram search predicate and are only available on PostgreSQL.
+ */
+@Slf4j
+@Component
+public class ProductCountEstimator {
+    private static final String RELTUPLES_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'product'::regclass";
+    private static final String EXPLAIN_SEARCH_SQL =
+            "EXPLAIN (FORMAT JSON) SELECT 1 FROM product WHERE name ILIKE ? ESCAPE '\\'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration refreshInterval;
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-count-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile CachedCount cachedCount;
+
+    public ProductCountEstimator(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform, ProductRepository productRepository,
+                                 ObjectMapper objectMapper, @Value("${catalog.count.refresh-interval:60s}") Duration refreshInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public long estimateAll() {
+        if(databasePlatform.isPostgres()) {
+            try {
+                Long reltuples = jdbcTemplate.queryForObject(RELTUPLES_SQL, Long.class);
+                if(reltuples != null && reltuples >= 0) {
+                    return reltuples;
+                }
+            } catch (DataAccessException e) {
+                log.debug("reltuples estimate unavailable, using cached count: {}", e.getMessage());
+            }
+        }
+        return cachedCount();
+    }
+
+    public OptionalLong estimateByName(String query) {
+        if(!databasePlatform.isPostgres()) {
+            return OptionalLong.empty();
+        }
+        try {
+            String plan = jdbcTemplate.queryForObject(EXPLAIN_SEARCH_SQL, String.class, LikePatterns.contains(query));
+            JsonNode planRows = objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            return planRows.isNumber() ? OptionalLong.of(planRows.asLong()) : OptionalLong.empty();
+        } catch (Exception e) {
+            log.debug("planner estimate unavailable for search: {}", e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private long cachedCount() {
+        CachedCount current = cachedCount;
+        if(current == null) {
+            return refreshCount();
+        }
+        if(current.isOlderThan(refreshInterval) && refreshing.compareAndSet(false, true)) {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshCount();
+                } catch (RuntimeException e) {
+                    log.warn("product count refresh failed: {}", e.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+        return current.value();
+    }
+
+    private long refreshCount() {
+        long count = productRepository.count();
+        cachedCount = new CachedCount(count, System.nanoTime());
+        return count;
+    }
+
+    private record CachedCount(long value, long computedAtNanos) {
+        boolean isOlderThan(Duration interval) {
+            return System.nanoTime() - computedAtNanos > interval.toNanos();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.catalogservice.service.cursor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes keyset positions of product listings into opaque "next" tokens and back.
+ * A token holds the last sort key values plus {@code id} as tie-breaker, and the sort
+ * it was produced for, so it cannot be replayed against a different ordering.
+ */
+@Component
+public class ProductCursorCodec {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> TOKEN_TYPE = new TypeReference<>() {};
+    private static final Map<String, Function<String, Object>> KEY_PARSERS = Map.of(
+            "id", Long::valueOf,
+            "name", value -> value,
+            "sku", value -> value,
+            "price", BigDecimal::new,
+            "stock", Integer::valueOf,
+            "createdAt", Instant::parse);
+
+    public ScrollPosition decode(String cursor, Sort sort) {
+        if(cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> token;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.trim());
+            token = OBJECT_MAPPER.readValue(json, TOKEN_TYPE);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if(!signature(sort).equals(token.get("s")) || !(token.get("k") instanceof Map<?, ?> rawKeys)) {
+            throw new IllegalArgumentException("Cursor does not match requested sort");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : rawKeys.entrySet()) {
+            Function<String, Object> parser = KEY_PARSERS.get(String.valueOf(entry.getKey()));
+            if(parser == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            try {
+                keys.put(String.valueOf(entry.getKey()), parser.apply(String.valueOf(entry.getValue())));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        if(!keys.containsKey("id")) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public String encode(KeysetScrollPosition position, Sort sort) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        position.getKeys().forEach((property, value) -> keys.put(property, value.toString()));
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("s", signature(sort));
+        token.put("k", keys);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(token));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode cursor", e);
+        }
+    }
+
+    private String signature(Sort sort) {
+        return sort.stream()
+                .map(order -> order.getProperty() + ":" + order.getDirection())
+                .collect(Collectors.joining(","));
+    }
+}
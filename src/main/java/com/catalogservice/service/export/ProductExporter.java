@@ -0,0 +1,123 @@
+package com.catalogservice.service.export;
+
+import com.catalogservice.dto.ProductResponseDto;
+import com.catalogservice.entity.Product;
+import com.catalogservice.mappers.ProductMapper;
+import com.catalogservice.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog in id order straight to an output stream.
+ * Rows come from a forward-only cursor ({@link ProductRepository#streamAll()}) and every product is detached
+ * once written, so heap use does not depend on the number of products.
+ */
+@Slf4j
+@Service
+public class ProductExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,sku,name,description,price,stock,createdAt,updatedAt,version";
+
+    private final ProductRepository productRepository;
+    private final ProductMapper mapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public ProductExporter(ProductRepository productRepository, ProductMapper mapper, EntityManager entityManager,
+                           ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writerFor(ProductResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Returns the number of exported products.
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream outputStream) {
+        long started = System.nanoTime();
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (Stream<Product> products = productRepository.streamAll()) {
+            Iterator<Product> iterator = products.iterator();
+            if(format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                while (iterator.hasNext()) {
+                    Product product = iterator.next();
+                    writeCsv(writer, product);
+                    entityManager.detach(product);
+                    rows++;
+                }
+            } else {
+                JsonGenerator generator = jsonWriter.createGenerator(writer).setRootValueSeparator(null);
+                while (iterator.hasNext()) {
+                    Product product = iterator.next();
+                    jsonWriter.writeValue(generator, mapper.mapToProductResponseDto(product));
+                    generator.writeRaw('\n');
+                    entityManager.detach(product);
+                    rows++;
+                }
+                generator.flush();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("PRODUCT_EXPORT format={} rows={} tookMs={}", format, rows, (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+
+    private void writeCsv(Writer writer, Product product) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writeCsvField(writer, product.getSku());
+        writer.write(',');
+        writeCsvField(writer, product.getName());
+        writer.write(',');
+        writeCsvField(writer, product.getDescription());
+        writer.write(',');
+        writer.write(product.getPrice().toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(product.getStock()));
+        writer.write(',');
+        writer.write(String.valueOf(product.getCreatedAt()));
+        writer.write(',');
+        writer.write(String.valueOf(product.getUpdatedAt()));
+        writer.write(',');
+        writer.write(String.valueOf(product.getVersion()));
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if(value == null) {
+            return;
+        }
+        boolean quoted = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if(!quoted) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
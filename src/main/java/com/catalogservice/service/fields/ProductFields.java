@@ -0,0 +1,90 @@
+package com.catalogservice.service.fields;
+
+import com.catalogservice.dto.ProductResponseDto;
+import com.catalogservice.repository.ProductSummary;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fields requested with {@code fields=}, always written in the order of {@link ProductResponseDto}.
+ * When all of them are {@link ProductSummary} columns, list reads use the projection queries instead of entities.
+ */
+public final class ProductFields {
+    private static final List<String> ALL = List.of("id", "name", "description", "price", "stock", "createdAt", "updatedAt", "sku", "version");
+    private static final Set<String> SUMMARY = Set.of("id", "name", "price", "stock", "sku", "version");
+
+    private final List<String> names;
+
+    private ProductFields(List<String> names) {
+        this.names = names;
+    }
+
+    public static ProductFields fromParam(String value) {
+        if(value == null || value.isBlank()) {
+            throw new IllegalArgumentException("fields must not be empty");
+        }
+        Set<String> requested = new HashSet<>();
+        for (String name : value.split(",")) {
+            requested.add(name.trim());
+        }
+        for (String name : requested) {
+            if(!ALL.contains(name)) {
+                throw new IllegalArgumentException(String.format("Invalid fields parameter: %s", name));
+            }
+        }
+        List<String> names = new ArrayList<>(requested.size());
+        for (String name : ALL) {
+            if(requested.contains(name)) {
+                names.add(name);
+            }
+        }
+        return new ProductFields(List.copyOf(names));
+    }
+
+    public boolean isSummary() {
+        return SUMMARY.containsAll(names);
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    public Map<String, Object> select(ProductResponseDto product) {
+        Map<String, Object> selected = new LinkedHashMap<>(names.size() * 2);
+        for (String name : names) {
+            selected.put(name, switch (name) {
+                case "id" -> product.getId();
+                case "name" -> product.getName();
+                case "description" -> product.getDescription();
+                case "price" -> product.getPrice();
+                case "stock" -> product.getStock();
+                case "createdAt" -> product.getCreatedAt();
+                case "updatedAt" -> product.getUpdatedAt();
+                case "sku" -> product.getSku();
+                default -> product.getVersion();
+            });
+        }
+        return selected;
+    }
+
+    public Map<String, Object> select(ProductSummary product) {
+        Map<String, Object> selected = new LinkedHashMap<>(names.size() * 2);
+        for (String name : names) {
+            selected.put(name, switch (name) {
+                case "id" -> product.id();
+                case "name" -> product.name();
+                case "price" -> product.price();
+                case "stock" -> product.stock();
+                case "sku" -> product.sku();
+                case "version" -> product.version();
+                default -> throw new IllegalStateException("Not a summary field: " + name);
+            });
+        }
+        return selected;
+    }
+}
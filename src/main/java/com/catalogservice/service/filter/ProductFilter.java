@@ -0,0 +1,85 @@
+package com.catalogservice.service.filter;
+
+import com.catalogservice.entity.Product;
+import com.catalogservice.repository.LikePatterns;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Optional list filters; every present one must match. {@code createdAfter} is inclusive and {@code createdBefore}
+ * exclusive, so consecutive ranges never overlap. {@code skuPrefix} is compared upper-case, like stored SKUs.
+ * <p>
+ * {@link #toSpecification()} turns the filters into a single WHERE clause served by the price, in-stock,
+ * created_at and SKU prefix indexes of migration V5.
+ */
+public record ProductFilter(BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock,
+                            Instant createdAfter, Instant createdBefore, String skuPrefix) {
+    private static final ProductFilter NONE = new ProductFilter(null, null, null, null, null, null);
+
+    public static ProductFilter none() {
+        return NONE;
+    }
+
+    public static ProductFilter fromParams(BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock,
+                                           Instant createdAfter, Instant createdBefore, String skuPrefix) {
+        if(minPrice != null && minPrice.signum() < 0) {
+            throw new IllegalArgumentException("minPrice must be >= 0");
+        }
+        if(maxPrice != null && maxPrice.signum() < 0) {
+            throw new IllegalArgumentException("maxPrice must be >= 0");
+        }
+        if(minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must be <= maxPrice");
+        }
+        if(createdAfter != null && createdBefore != null && !createdAfter.isBefore(createdBefore)) {
+            throw new IllegalArgumentException("createdAfter must be before createdBefore");
+        }
+        String prefix = null;
+        if(skuPrefix != null) {
+            prefix = skuPrefix.trim().toUpperCase(Locale.ROOT);
+            if(prefix.isEmpty() || prefix.length() > 32) {
+                throw new IllegalArgumentException("skuPrefix must be 1-32 characters");
+            }
+        }
+        return new ProductFilter(minPrice, maxPrice, inStock, createdAfter, createdBefore, prefix);
+    }
+
+    public boolean isEmpty() {
+        return minPrice == null && maxPrice == null && inStock == null
+                && createdAfter == null && createdBefore == null && skuPrefix == null;
+    }
+
+    public Specification<Product> toSpecification() {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(6);
+            if(minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            }
+            if(maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            if(inStock != null) {
+                // literal 0 so PostgreSQL can match the partial index on stock > 0
+                predicates.add(inStock
+                        ? cb.greaterThan(root.get("stock"), cb.literal(0))
+                        : cb.equal(root.get("stock"), cb.literal(0)));
+            }
+            if(createdAfter != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), createdAfter));
+            }
+            if(createdBefore != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), createdBefore));
+            }
+            if(skuPrefix != null) {
+                predicates.add(cb.like(root.get("sku"), LikePatterns.startsWith(skuPrefix), '\\'));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
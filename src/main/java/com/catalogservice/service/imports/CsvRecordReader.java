@@ -0,0 +1,108 @@
+package com.catalogservice.service.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 reader: quoted fields may contain separators, doubled quotes and line breaks.
+ */
+final class CsvRecordReader {
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack = -2;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the fields of the next non-empty record, or null at the end of input.
+     */
+    List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if(c == -1) {
+                return null;
+            }
+            if(c == '\r' || c == '\n') {
+                skipLineBreak(c);
+                continue;
+            }
+            recordLine = line;
+            pushedBack = c;
+            return readRecord();
+        }
+    }
+
+    /**
+     * Line on which the record last returned by {@link #next()} starts.
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if(quoted) {
+                if(c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if(c == '"') {
+                    int following = read();
+                    if(following == '"') {
+                        field.append('"');
+                        continue;
+                    }
+                    quoted = false;
+                    pushedBack = following;
+                    continue;
+                }
+                if(c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+                continue;
+            }
+            if(c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if(c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if(c == '\r' || c == '\n' || c == -1) {
+                fields.add(field.toString());
+                if(c != -1) {
+                    skipLineBreak(c);
+                }
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private void skipLineBreak(int c) throws IOException {
+        line++;
+        if(c == '\r') {
+            int following = read();
+            if(following != '\n') {
+                pushedBack = following;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if(pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
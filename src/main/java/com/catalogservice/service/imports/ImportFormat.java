@@ -0,0 +1,19 @@
+package com.catalogservice.service.imports;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+
+    public static ImportFormat fromParam(String value) {
+        if(value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return ImportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Invalid format parameter: %s", value));
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.catalogservice.service.imports;
+
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.dto.ImportRejectDto;
+import com.catalogservice.dto.ImportReportDto;
+import com.catalogservice.dto.ProductCreateRequestDto;
+import com.catalogservice.entity.Product;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductSnapshot;
+import com.catalogservice.exceptions.ImportAbortedException;
+import com.catalogservice.mappers.ProductMapper;
+import com.catalogservice.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Bulk upsert of products by SKU from a CSV or NDJSON stream.
+ * <p>
+ * Rows are parsed one at a time and checked with the {@code BaseDto}/{@link Product} rules; valid rows are
+ * written in chunks of {@code catalog.import.chunk-size}, one transaction per chunk, so memory is bounded by
+ * the chunk and a failure only rolls back the current chunk. On PostgreSQL a chunk is copied with {@code COPY}
+ * into a session temp table and merged with one {@code INSERT ... ON CONFLICT (sku)}; other databases go
+ * through JPA batch inserts. Within a chunk the last row of a SKU wins, as it does across chunks.
+ * Every inserted or changed product publishes a {@link ProductChangedEvent} like the single-row write paths.
+ * If the stream cannot be read to the end (for example an unterminated quoted CSV field), the pending chunk is
+ * dropped and an {@link ImportAbortedException} reports what the earlier chunks committed.
+ */
+@Slf4j
+@Service
+public class ProductImporter {
+    private static final String STAGING_DDL = """
+            CREATE TEMP TABLE IF NOT EXISTS product_import_staging (
+                line        BIGINT         NOT NULL,
+                sku         VARCHAR(32)    NOT NULL,
+                name        VARCHAR(120)   NOT NULL,
+                description VARCHAR(1000),
+                price       NUMERIC(12, 2) NOT NULL,
+                stock       INTEGER        NOT NULL
+            ) ON COMMIT DELETE ROWS""";
+    private static final String COPY_SQL =
+            "COPY product_import_staging (line, sku, name, description, price, stock) FROM STDIN WITH (FORMAT csv)";
+    private static final String MERGE_SQL = """
+            WITH incoming AS (
+                SELECT DISTINCT ON (sku) sku, name, description, price, stock
+                FROM product_import_staging
+                ORDER BY sku, line DESC
+            ), previous AS (
+                SELECT p.id, p.name, p.price, p.stock, p.version
+                FROM product p JOIN incoming i ON p.sku = i.sku
+            ), merged AS (
+                INSERT INTO product (name, description, price, stock, created_at, updated_at, version, sku)
+                SELECT name, description, price, stock, now(), now(), 0, sku FROM incoming
+                ON CONFLICT (sku) DO UPDATE
+                SET name = EXCLUDED.name, description = EXCLUDED.description, price = EXCLUDED.price,
+                    stock = EXCLUDED.stock, updated_at = now(), version = product.version + 1
+                WHERE (product.name, product.description, product.price, product.stock)
+                      IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.description, EXCLUDED.price, EXCLUDED.stock)
+                RETURNING id, name, sku, price, stock, version
+            )
+            SELECT m.id, m.name, m.sku, m.price, m.stock, m.version,
+                   pv.name AS previous_name, pv.price AS previous_price, pv.stock AS previous_stock, pv.version AS previous_version
+            FROM merged m LEFT JOIN previous pv ON pv.id = m.id""";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectReader rowReader;
+    private final Validator validator;
+    private final ProductMapper mapper;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxRejects;
+    private final Counter insertedRows;
+    private final Counter updatedRows;
+    private final Counter unchangedRows;
+    private final Counter rejectedRows;
+
+    public ProductImporter(ObjectMapper objectMapper, Validator validator, ProductMapper mapper,
+                           ProductRepository productRepository, JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform,
+                           EntityManager entityManager, PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                           @Value("${catalog.import.chunk-size:5000}") int chunkSize,
+                           @Value("${catalog.import.max-reported-rejects:1000}") int maxRejects) {
+        this.rowReader = objectMapper.readerFor(ProductCreateRequestDto.class);
+        this.validator = validator;
+        this.mapper = mapper;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxRejects = maxRejects;
+        this.insertedRows = Counter.builder("product.import.rows").tag("result", "inserted").register(meterRegistry);
+        this.updatedRows = Counter.builder("product.import.rows").tag("result", "updated").register(meterRegistry);
+        this.unchangedRows = Counter.builder("product.import.rows").tag("result", "unchanged").register(meterRegistry);
+        this.rejectedRows = Counter.builder("product.import.rows").tag("result", "rejected").register(meterRegistry);
+    }
+
+    public ImportReportDto importProducts(ImportFormat format, InputStream inputStream) {
+        Progress progress = new Progress(System.nanoTime());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try {
+            RowSource source = format == ImportFormat.CSV ? csvSource(reader) : ndjsonSource(reader);
+            for (ParsedRow parsed = source.next(); parsed != null; parsed = source.next()) {
+                progress.rows++;
+                Product product = validationRow(parsed);
+                if(product == null) {
+                    progress.reject(parsed.line(), parsed.errors(), maxRejects);
+                    rejectedRows.increment();
+                    continue;
+                }
+                ImportRow row = new ImportRow(parsed.line(), product);
+                chunk.add(row);
+                if(chunk.size() == chunkSize) {
+                    writeChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if(!chunk.isEmpty()) {
+                writeChunk(chunk, progress);
+            }
+        } catch (IOException e) {
+            ImportReportDto report = progress.report();
+            log.warn("PRODUCT_IMPORT_ABORTED format={} rows={} inserted={} updated={} unchanged={} rejected={} msg={}",
+                    format, report.getRows(), report.getInserted(), report.getUpdated(), report.getUnchanged(),
+                    report.getRejected(), e.getMessage());
+            throw new ImportAbortedException(e.getMessage(), report);
+        }
+        ImportReportDto report = progress.report();
+        log.info("PRODUCT_IMPORT_DONE format={} rows={} inserted={} updated={} unchanged={} rejected={} rowsPerSecond={} tookMs={}",
+                format, report.getRows(), report.getInserted(), report.getUpdated(), report.getUnchanged(),
+                report.getRejected(), Math.round(report.getRowsPerSecond()), report.getTookMs());
+        return report;
+    }
+
+    private void writeChunk(List<ImportRow> chunk, Progress progress) {
+        Map<String, ImportRow> lastBySku = new LinkedHashMap<>();
+        chunk.forEach(row -> lastBySku.put(row.product().getSku(), row));
+        int changed = transactionTemplate.execute(status -> databasePlatform.isPostgres()
+                ? copyAndMerge(chunk, progress)
+                : mergeWithJpa(lastBySku, progress));
+        long unchanged = lastBySku.size() - changed;
+        progress.unchanged += unchanged;
+        unchangedRows.increment(unchanged);
+        log.info("PRODUCT_IMPORT_PROGRESS rows={} inserted={} updated={} rejected={} rowsPerSecond={}",
+                progress.rows, progress.inserted, progress.updated, progress.rejected, Math.round(progress.rowsPerSecond()));
+    }
+
+    private int copyAndMerge(List<ImportRow> chunk, Progress progress) {
+        StringBuilder csv = new StringBuilder(chunk.size() * 96);
+        for (ImportRow row : chunk) {
+            Product product = row.product();
+            csv.append(row.line()).append(',');
+            appendCopyField(csv, product.getSku()).append(',');
+            appendCopyField(csv, product.getName()).append(',');
+            appendCopyField(csv, product.getDescription()).append(',');
+            csv.append(product.getPrice().toPlainString()).append(',')
+                    .append(product.getStock()).append('\n');
+        }
+        jdbcTemplate.execute(STAGING_DDL);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                copyIn(connection.unwrap(PGConnection.class), csv.toString()));
+        List<ProductChangedEvent> events = jdbcTemplate.query(MERGE_SQL, (resultSet, rowNum) -> {
+            ProductSnapshot after = new ProductSnapshot(resultSet.getLong("id"), resultSet.getString("name"),
+                    resultSet.getString("sku"), resultSet.getBigDecimal("price"), resultSet.getInt("stock"),
+                    resultSet.getLong("version"));
+            long previousVersion = resultSet.getLong("previous_version");
+            if(resultSet.wasNull()) {
+                return ProductChangedEvent.created(after);
+            }
+            ProductSnapshot before = new ProductSnapshot(after.id(), resultSet.getString("previous_name"), after.sku(),
+                    resultSet.getBigDecimal("previous_price"), resultSet.getInt("previous_stock"), previousVersion);
+            return ProductChangedEvent.updated(before, after);
+        });
+        events.forEach(event -> publish(event, progress));
+        return events.size();
+    }
+
+    private int mergeWithJpa(Map<String, ImportRow> lastBySku, Progress progress) {
+        Map<String, Product> existing = new HashMap<>();
+        productRepository.findAllBySkuIn(lastBySku.keySet()).forEach(product -> existing.put(product.getSku(), product));
+        List<Product> inserts = new ArrayList<>();
+        Map<Product, ProductSnapshot> updates = new LinkedHashMap<>();
+        for (ImportRow row : lastBySku.values()) {
+            Product incoming = row.product();
+            Product current = existing.get(incoming.getSku());
+            if(current == null) {
+                inserts.add(incoming);
+            } else if(!sameContent(current, incoming)) {
+                updates.put(current, ProductSnapshot.of(current));
+                current.setName(incoming.getName());
+                current.setDescription(incoming.getDescription());
+                current.setPrice(incoming.getPrice());
+                current.setStock(incoming.getStock());
+            }
+        }
+        productRepository.saveAll(inserts);
+        productRepository.flush();
+        inserts.forEach(product -> publish(ProductChangedEvent.created(ProductSnapshot.of(product)), progress));
+        updates.forEach((product, before) -> publish(ProductChangedEvent.updated(before, ProductSnapshot.of(product)), progress));
+        entityManager.clear();
+        return inserts.size() + updates.size();
+    }
+
+    private void publish(ProductChangedEvent event, Progress progress) {
+        eventPublisher.publishEvent(event);
+        if(event.before() == null) {
+            progress.inserted++;
+            insertedRows.increment();
+        } else {
+            progress.updated++;
+            updatedRows.increment();
+        }
+    }
+
+    /**
+     * Returns the product to write, or null with the reasons added to the row errors.
+     */
+    private Product validationRow(ParsedRow parsed) {
+        if(!parsed.errors().isEmpty()) {
+            return null;
+        }
+        Map<String, List<String>> details = parsed.errors();
+        for (ConstraintViolation<ProductCreateRequestDto> violation : validator.validate(parsed.dto())) {
+            details.computeIfAbsent(violation.getPropertyPath().toString(), k -> new ArrayList<>())
+                    .add(violation.getMessage());
+        }
+        if(!details.isEmpty()) {
+            return null;
+        }
+        try {
+            return mapper.mapToProduct(parsed.dto());
+        } catch (IllegalArgumentException e) {
+            details.put("row", List.of(e.getMessage()));
+            return null;
+        }
+    }
+
+    private RowSource csvSource(BufferedReader reader) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader);
+        List<String> header = records.next();
+        if(header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("sku", "name", "price", "stock")) {
+            if(!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must contain column " + required);
+            }
+        }
+        return () -> {
+            List<String> fields = records.next();
+            if(fields == null) {
+                return null;
+            }
+            Map<String, List<String>> errors = new LinkedHashMap<>();
+            Function<String, String> column = name -> {
+                Integer index = columns.get(name);
+                return index == null || index >= fields.size() || fields.get(index).isEmpty() ? null : fields.get(index);
+            };
+            ProductCreateRequestDto dto = new ProductCreateRequestDto();
+            dto.setSku(column.apply("sku"));
+            dto.setName(column.apply("name"));
+            dto.setDescription(column.apply("description"));
+            dto.setPrice(parse(column.apply("price"), BigDecimal::new, "price", errors));
+            dto.setStock(parse(column.apply("stock"), Integer::valueOf, "stock", errors));
+            return new ParsedRow(records.recordLine(), dto, errors);
+        };
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        long[] line = {0};
+        return () -> {
+            String json;
+            do {
+                json = reader.readLine();
+                line[0]++;
+            } while (json != null && json.isBlank());
+            if(json == null) {
+                return null;
+            }
+            Map<String, List<String>> errors = new LinkedHashMap<>();
+            ProductCreateRequestDto dto = null;
+            try {
+                dto = rowReader.readValue(json);
+            } catch (JsonProcessingException e) {
+                errors.put("row", List.of("malformed JSON: " + e.getOriginalMessage()));
+            }
+            if(dto == null && errors.isEmpty()) {
+                errors.put("row", List.of("must be a JSON object"));
+            }
+            return new ParsedRow(line[0], dto, errors);
+        };
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser, String field, Map<String, List<String>> errors) {
+        if(value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            errors.put(field, List.of("must be a number"));
+            return null;
+        }
+    }
+
+    private static boolean sameContent(Product current, Product incoming) {
+        return current.getName().equals(incoming.getName())
+                && Objects.equals(current.getDescription(), incoming.getDescription())
+                && current.getPrice().compareTo(incoming.getPrice()) == 0
+                && current.getStock().equals(incoming.getStock());
+    }
+
+    private static long copyIn(PGConnection connection, String csv) throws java.sql.SQLException {
+        try {
+            return connection.getCopyAPI().copyIn(COPY_SQL, new StringReader(csv));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Quotes every non-null value; an unquoted empty field is NULL in {@code COPY ... (FORMAT csv)}.
+     */
+    private static StringBuilder appendCopyField(StringBuilder csv, String value) {
+        if(value == null) {
+            return csv;
+        }
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private interface RowSource {
+        ParsedRow next() throws IOException;
+    }
+
+    private record ParsedRow(long line, ProductCreateRequestDto dto, Map<String, List<String>> errors) {
+    }
+
+    private record ImportRow(long line, Product product) {
+    }
+
+    private static final class Progress {
+        private final long startedNanos;
+        private final List<ImportRejectDto> rejects = new ArrayList<>();
+        private long rows;
+        private long inserted;
+        private long updated;
+        private long unchanged;
+        private long rejected;
+
+        Progress(long startedNanos) {
+            this.startedNanos = startedNanos;
+        }
+
+        void reject(long line, Map<String, List<String>> details, int maxRejects) {
+            rejected++;
+            if(rejects.size() < maxRejects) {
+                rejects.add(ImportRejectDto.builder().line(line).details(details).build());
+            }
+        }
+
+        double rowsPerSecond() {
+            double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+            return seconds > 0 ? rows / seconds : rows;
+        }
+
+        ImportReportDto report() {
+            return ImportReportDto.builder()
+                    .rows(rows)
+                    .inserted(inserted)
+                    .updated(updated)
+                    .unchanged(unchanged)
+                    .rejected(rejected)
+                    .rejects(rejects)
+                    .rejectsTruncated(rejected > rejects.size())
+                    .tookMs((System.nanoTime() - startedNanos) / 1_000_000)
+                    .rowsPerSecond(rowsPerSecond())
+                    .build();
+        }
+    }
+}
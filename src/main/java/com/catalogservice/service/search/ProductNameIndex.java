@@ -0,0 +1,361 @@
+package com.catalogservice.service.search;
+
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.repository.ProductNameView;
+import com.catalogservice.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory inverted index of lower-cased product name trigrams to sorted {@code long[]} id postings.
+ * Enabled with {@code catalog.search.index.enabled=true}: loaded once after startup and then kept current
+ * from committed {@link ProductChangedEvent}s. Until loading finishes, searches stay on the database.
+ * Once {@link #trustUntil} has granted a lease that has run out, they go back to the database until it is renewed,
+ * since changes from other nodes may be missed meanwhile.
+ * <p>
+ * Every name also yields a trigram padded with {@code '\0'} at its end, so a two-character query is the
+ * union of all trigrams starting with it. Candidates are verified against the stored name, so results
+ * match the {@code containing ignore case} semantics of the database query.
+ * <p>
+ * Only unsorted and id-sorted requests are served: ordering by name follows the database collation,
+ * which an in-memory comparison of lower-cased names does not reproduce.
+ */
+@Slf4j
+@Component
+public class ProductNameIndex {
+    private static final char END = '\0';
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int loadBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, Postings> postingsByGram = new TreeMap<>();
+    private final Map<Long, String> namesById = new HashMap<>();
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+    private volatile boolean ready;
+    private volatile boolean leased;
+    private volatile long trustedUntil;
+
+    public ProductNameIndex(ProductRepository productRepository,
+                            @Value("${catalog.search.index.enabled:false}") boolean enabled,
+                            @Value("${catalog.search.index.load-batch-size:10000}") int loadBatchSize) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public boolean canServe(Sort sort) {
+        if(!ready || (leased && System.nanoTime() - trustedUntil > 0)) {
+            return false;
+        }
+        if(sort.isUnsorted()) {
+            return true;
+        }
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1 && "id".equals(orders.get(0).getProperty());
+    }
+
+    /**
+     * Serves searches only until {@code deadline}, a {@link System#nanoTime()} value.
+     */
+    public void trustUntil(long deadline) {
+        trustedUntil = deadline;
+        leased = true;
+    }
+
+    /**
+     * Returns the ids of the requested page, ordered by id unless descending order is requested, and the exact number of matches.
+     */
+    public Hits search(String query, Pageable pageable) {
+        String normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            long[] matches = matches(normalized);
+            Sort.Order idOrder = pageable.getSort().getOrderFor("id");
+            if(idOrder != null && idOrder.isDescending()) {
+                return page(reversed(matches), pageable);
+            }
+            return page(matches, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return namesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if(!enabled) {
+            return;
+        }
+        loading = true;
+        Thread loader = new Thread(this::load, "product-name-index-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Drops the index and loads it again, for when changes may have been missed; searches use the database meanwhile.
+     */
+    public void reload() {
+        if(!enabled || loading) {
+            return;
+        }
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            postingsByGram.clear();
+            namesById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        startLoading();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if(!enabled) {
+            return;
+        }
+        if(loading) {
+            changedWhileLoading.add(event.productId());
+        }
+        lock.writeLock().lock();
+        try {
+            if(event.isDeleted()) {
+                remove(event.productId());
+            } else {
+                put(event.productId(), event.after().name());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void load() {
+        long started = System.nanoTime();
+        long lastId = 0;
+        try {
+            List<ProductNameView> batch = productRepository.findNamesByIdGreaterThan(lastId, Limit.of(loadBatchSize));
+            while (!batch.isEmpty()) {
+                lock.writeLock().lock();
+                try {
+                    for (ProductNameView view : batch) {
+                        if(!changedWhileLoading.contains(view.getId())) {
+                            put(view.getId(), view.getName());
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+                batch = productRepository.findNamesByIdGreaterThan(lastId, Limit.of(loadBatchSize));
+            }
+            lock.writeLock().lock();
+            try {
+                postingsByGram.values().forEach(Postings::trimToSize);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("PRODUCT_NAME_INDEX_READY products={} grams={} tookMs={}",
+                    size(), postingsByGram.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("PRODUCT_NAME_INDEX_LOAD_FAILED search stays on the database", e);
+        } finally {
+            loading = false;
+            changedWhileLoading.clear();
+        }
+    }
+
+    private void put(long id, String name) {
+        String normalized = normalize(name);
+        String previous = namesById.put(id, normalized);
+        if(normalized.equals(previous)) {
+            return;
+        }
+        if(previous != null) {
+            forEachGram(previous, gram -> removePosting(gram, id));
+        }
+        forEachGram(normalized, gram -> postingsByGram.computeIfAbsent(gram, key -> new Postings()).add(id));
+    }
+
+    private void remove(long id) {
+        String previous = namesById.remove(id);
+        if(previous != null) {
+            forEachGram(previous, gram -> removePosting(gram, id));
+        }
+    }
+
+    private void removePosting(long gram, long id) {
+        Postings postings = postingsByGram.get(gram);
+        if(postings != null && postings.remove(id) && postings.size == 0) {
+            postingsByGram.remove(gram);
+        }
+    }
+
+    private long[] matches(String normalized) {
+        long[] candidates = candidates(normalized);
+        long[] matches = new long[candidates.length];
+        int matched = 0;
+        for (long id : candidates) {
+            String name = namesById.get(id);
+            if(name != null && name.contains(normalized)) {
+                matches[matched++] = id;
+            }
+        }
+        return Arrays.copyOf(matches, matched);
+    }
+
+    private long[] candidates(String query) {
+        if(query.length() == 2) {
+            long from = gram(query.charAt(0), query.charAt(1), Character.MIN_VALUE);
+            long to = gram(query.charAt(0), query.charAt(1), Character.MAX_VALUE);
+            return union(postingsByGram.subMap(from, true, to, true).values());
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + 2 < query.length(); i++) {
+            Postings postings = postingsByGram.get(gram(query.charAt(i), query.charAt(i + 1), query.charAt(i + 2)));
+            if(postings == null) {
+                return new long[0];
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(postings -> postings.size));
+        long[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; i++) {
+            Postings other = lists.get(i);
+            int kept = 0;
+            for (int j = 0; j < size; j++) {
+                if(Arrays.binarySearch(other.ids, 0, other.size, result[j]) >= 0) {
+                    result[kept++] = result[j];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long[] reversed(long[] ids) {
+        long[] reversed = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            reversed[i] = ids[ids.length - 1 - i];
+        }
+        return reversed;
+    }
+
+    private static Hits page(long[] matches, Pageable pageable) {
+        if(pageable.isUnpaged()) {
+            return new Hits(Arrays.stream(matches).boxed().toList(), matches.length);
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.length);
+        int to = Math.min(from + pageable.getPageSize(), matches.length);
+        return new Hits(Arrays.stream(matches, from, to).boxed().toList(), matches.length);
+    }
+
+    private static long[] union(Iterable<Postings> lists) {
+        int total = 0;
+        for (Postings postings : lists) {
+            total += postings.size;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (Postings postings : lists) {
+            System.arraycopy(postings.ids, 0, all, offset, postings.size);
+            offset += postings.size;
+        }
+        return Arrays.stream(all).sorted().distinct().toArray();
+    }
+
+    private static void forEachGram(String name, LongConsumer consumer) {
+        for (int i = 0; i + 1 < name.length(); i++) {
+            char third = i + 2 < name.length() ? name.charAt(i + 2) : END;
+            consumer.accept(gram(name.charAt(i), name.charAt(i + 1), third));
+        }
+    }
+
+    private static long gram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if(size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if(index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if(index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        void trimToSize() {
+            if(ids.length > size) {
+                ids = Arrays.copyOf(ids, size);
+            }
+        }
+
+        private void insertAt(int index, long id) {
+            if(size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
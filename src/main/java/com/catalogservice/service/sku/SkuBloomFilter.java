@@ -0,0 +1,287 @@
+package com.catalogservice.service.sku;
+
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.repository.ProductSkuView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting Bloom filter over lower-cased product SKUs, used by {@code createProduct} to skip the
+ * duplicate lookup for SKUs that are certainly new. Enabled with {@code catalog.sku-filter.enabled}
+ * (default true), sized for {@code max(expected-insertions, 2 * products at startup)} at {@code false-positive-rate}.
+ * <p>
+ * Each slot is a 4-bit counter so deleted SKUs can be removed again. Until seeding after startup has finished,
+ * and for deletes seen while seeding, the filter answers "maybe present", so it can only cost an extra lookup,
+ * never skip a needed one. The unique constraint on {@code sku} stays the final guard.
+ */
+@Slf4j
+@Component
+public class SkuBloomFilter {
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MAX = 0xF;
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final int loadBatchSize;
+    private final Counter skipped;
+    private final Counter duplicates;
+    private final Counter falsePositives;
+
+    private volatile Filter filter;
+    private volatile boolean ready;
+
+    public SkuBloomFilter(ProductRepository productRepository,
+                          @Value("${catalog.sku-filter.enabled:true}") boolean enabled,
+                          @Value("${catalog.sku-filter.expected-insertions:1000000}") long expectedInsertions,
+                          @Value("${catalog.sku-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${catalog.sku-filter.load-batch-size:10000}") int loadBatchSize,
+                          MeterRegistry meterRegistry) {
+        if(falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("catalog.sku-filter.false-positive-rate must be between 0 and 1");
+        }
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.expectedInsertions = Math.max(1, expectedInsertions);
+        this.falsePositiveRate = falsePositiveRate;
+        this.loadBatchSize = loadBatchSize;
+        this.skipped = Counter.builder("sku.filter.checks").tag("result", "absent").register(meterRegistry);
+        this.duplicates = Counter.builder("sku.filter.checks").tag("result", "duplicate").register(meterRegistry);
+        this.falsePositives = Counter.builder("sku.filter.checks").tag("result", "false_positive").register(meterRegistry);
+        Gauge.builder("sku.filter.false.positive.rate", this, SkuBloomFilter::observedFalsePositiveRate)
+                .description("Share of new SKUs the filter could not rule out")
+                .register(meterRegistry);
+        Gauge.builder("sku.filter.expected.false.positive.rate", this, SkuBloomFilter::expectedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("sku.filter.memory", this, SkuBloomFilter::memoryBytes).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("sku.filter.size", this, SkuBloomFilter::size).register(meterRegistry);
+    }
+
+    /**
+     * True only if no product with this SKU (ignoring case) existed when the filter last heard of it.
+     */
+    public boolean isDefinitelyAbsent(String sku) {
+        Filter current = filter;
+        if(!ready || current == null || sku == null) {
+            return false;
+        }
+        if(current.mightContain(normalize(sku))) {
+            return false;
+        }
+        skipped.increment();
+        return true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Feeds back the outcome of a lookup made after {@link #isDefinitelyAbsent} could not rule the SKU out.
+     */
+    public void recordLookup(boolean found) {
+        if(!ready) {
+            return;
+        }
+        (found ? duplicates : falsePositives).increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if(!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::load, "sku-filter-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        Filter current = filter;
+        if(current == null) {
+            return;
+        }
+        if(event.before() == null) {
+            current.add(normalize(event.after().sku()));
+        } else if(event.isDeleted() && ready) {
+            current.remove(normalize(event.before().sku()));
+        }
+    }
+
+    void load() {
+        long started = System.nanoTime();
+        try {
+            long capacity = Math.max(expectedInsertions, 2 * productRepository.count());
+            Filter loading = new Filter(capacity, falsePositiveRate);
+            filter = loading;
+            long lastId = 0;
+            List<ProductSkuView> batch = productRepository.findSkusByIdGreaterThan(lastId, Limit.of(loadBatchSize));
+            while (!batch.isEmpty()) {
+                for (ProductSkuView view : batch) {
+                    loading.add(normalize(view.getSku()));
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+                batch = productRepository.findSkusByIdGreaterThan(lastId, Limit.of(loadBatchSize));
+            }
+            ready = true;
+            log.info("SKU_FILTER_READY skus={} capacity={} hashes={} memoryBytes={} tookMs={}",
+                    loading.size(), capacity, loading.hashes, loading.memoryBytes(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            filter = null;
+            log.error("SKU_FILTER_LOAD_FAILED duplicate checks stay on the database", e);
+        }
+    }
+
+    double observedFalsePositiveRate() {
+        double negatives = skipped.count() + falsePositives.count();
+        return negatives == 0 ? 0 : falsePositives.count() / negatives;
+    }
+
+    double expectedFalsePositiveRate() {
+        Filter current = filter;
+        return current == null ? 1 : current.expectedFalsePositiveRate();
+    }
+
+    long memoryBytes() {
+        Filter current = filter;
+        return current == null ? 0 : current.memoryBytes();
+    }
+
+    long size() {
+        Filter current = filter;
+        return current == null ? 0 : current.size();
+    }
+
+    private static String normalize(String sku) {
+        return sku.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Filter {
+        private final AtomicLongArray words;
+        private final long slots;
+        private final int hashes;
+        private final AtomicLong occupied = new AtomicLong();
+        private final AtomicLong size = new AtomicLong();
+
+        Filter(long capacity, double falsePositiveRate) {
+            long wanted = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (wanted + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+            this.words = new AtomicLongArray(Math.max(1, wordCount));
+            this.slots = (long) words.length() * COUNTERS_PER_WORD;
+            this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) slots / capacity * Math.log(2))));
+        }
+
+        boolean mightContain(String sku) {
+            long hash1 = hash(sku);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                if(counter(slot(hash1, hash2, i)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(String sku) {
+            long hash1 = hash(sku);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                update(slot(hash1, hash2, i), 1);
+            }
+            size.incrementAndGet();
+        }
+
+        void remove(String sku) {
+            if(!mightContain(sku)) {
+                return;
+            }
+            long hash1 = hash(sku);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                update(slot(hash1, hash2, i), -1);
+            }
+            size.decrementAndGet();
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow((double) occupied.get() / slots, hashes);
+        }
+
+        long memoryBytes() {
+            return (long) words.length() * Long.BYTES;
+        }
+
+        long size() {
+            return size.get();
+        }
+
+        private long slot(long hash1, long hash2, int i) {
+            return Long.remainderUnsigned(hash1 + i * hash2, slots);
+        }
+
+        private long counter(long slot) {
+            return (words.get((int) (slot / COUNTERS_PER_WORD)) >>> shift(slot)) & COUNTER_MAX;
+        }
+
+        /**
+         * Saturated counters stay at their maximum, since their true count is no longer known.
+         */
+        private void update(long slot, int delta) {
+            int index = (int) (slot / COUNTERS_PER_WORD);
+            int shift = shift(slot);
+            while (true) {
+                long word = words.get(index);
+                long value = (word >>> shift) & COUNTER_MAX;
+                if(value == COUNTER_MAX || (delta < 0 && value == 0)) {
+                    return;
+                }
+                long next = value + delta;
+                if(words.compareAndSet(index, word, (word & ~(COUNTER_MAX << shift)) | (next << shift))) {
+                    if(value == 0) {
+                        occupied.incrementAndGet();
+                    } else if(next == 0) {
+                        occupied.decrementAndGet();
+                    }
+                    return;
+                }
+            }
+        }
+
+        private static int shift(long slot) {
+            return (int) (slot % COUNTERS_PER_WORD) * 4;
+        }
+
+        private static long hash(String sku) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : sku.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+CREATE SEQUENCE IF NOT EXISTS product_seq INCREMENT BY 50;
+
+SELECT setval('product_seq', COALESCE((SELECT max(id) FROM product), 0) + 50);
+
+ALTER TABLE product ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE product ALTER COLUMN id SET DEFAULT nextval('product_seq');
+ALTER SEQUENCE product_seq OWNED BY product.id;
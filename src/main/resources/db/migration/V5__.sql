@@ -0,0 +1,6 @@
+-- Indexes for the list filters (minPrice/maxPrice, inStock, createdAfter/createdBefore, skuPrefix)
+CREATE INDEX IF NOT EXISTS idx_product_price ON product (price);
+CREATE INDEX IF NOT EXISTS idx_product_in_stock_price ON product (price) WHERE stock > 0;
+CREATE INDEX IF NOT EXISTS idx_product_created_at ON product (created_at);
+-- the unique constraint index on sku uses the database collation and cannot serve LIKE 'PREFIX%'
+CREATE INDEX IF NOT EXISTS idx_product_sku_pattern ON product (sku varchar_pattern_ops);
@@ -0,0 +1,93 @@
+package com.catalogservice;
+
+import com.catalogservice.dto.auth.RegisterRequestDto;
+import com.catalogservice.dto.auth.RegisterResponseDto;
+import com.catalogservice.entity.Role;
+import com.catalogservice.entity.User;
+import com.catalogservice.exceptions.DuplicateEmailException;
+import com.catalogservice.exceptions.DuplicateUsernameException;
+import com.catalogservice.mappers.UserMapper;
+import com.catalogservice.repository.UserRepository;
+import com.catalogservice.security.PasswordHasher;
+import com.catalogservice.service.auth.AuthServiceImpl;
+import com.catalogservice.service.auth.RoleCache;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthServiceImplTest {
+
+    @Mock
+    UserRepository userRepository;
+    @Mock
+    RoleCache roleCache;
+    @Mock
+    PasswordHasher passwordHasher;
+    @Spy
+    UserMapper userMapper;
+    @InjectMocks
+    AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        when(roleCache.findByName("ROLE_USER")).thenReturn(Optional.of(new Role("ROLE_USER")));
+        when(passwordHasher.encode("password123")).thenReturn("$2a$10$" + "x".repeat(53));
+    }
+
+    @Test
+    public void register_insertsWithoutLookups() {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RegisterResponseDto response = authService.register(request("Someone@Example.com", "someone"));
+
+        assertThat(response.getEmail()).isEqualTo("someone@example.com");
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    public void register_mapsUniqueIndexViolationsToDuplicateExceptions() {
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(violation("ux_users_email_ci"))
+                .thenThrow(violation("ux_users_username_ci"))
+                .thenThrow(violation("users_password_hash_len_chk"));
+
+        assertThatThrownBy(() -> authService.register(request("a@example.com", "someone")))
+                .isInstanceOf(DuplicateEmailException.class);
+        assertThatThrownBy(() -> authService.register(request("b@example.com", "someone")))
+                .isInstanceOf(DuplicateUsernameException.class);
+        assertThatThrownBy(() -> authService.register(request("c@example.com", "other")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"), constraint));
+    }
+
+    private static RegisterRequestDto request(String email, String username) {
+        RegisterRequestDto registerRequestDto = new RegisterRequestDto();
+        registerRequestDto.setEmail(email);
+        registerRequestDto.setUsername(username);
+        registerRequestDto.setPassword("password123");
+        return registerRequestDto;
+    }
+}
@@ -0,0 +1,134 @@
+package com.catalogservice;
+
+import com.catalogservice.dto.ProductResponseDto;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.repository.ProductSummary;
+import com.catalogservice.service.aggregate.CatalogAggregates;
+import com.catalogservice.service.auth.RoleCache;
+import com.catalogservice.service.cache.CacheInvalidationListener;
+import com.catalogservice.service.cache.CacheInvalidationNotifier;
+import com.catalogservice.service.cache.CatalogRevision;
+import com.catalogservice.service.cache.InvalidationMessage;
+import com.catalogservice.service.cache.ProductCache;
+import com.catalogservice.service.search.ProductNameIndex;
+import com.catalogservice.service.sku.SkuBloomFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheInvalidationTest {
+
+    @Mock
+    CacheInvalidationNotifier notifier;
+    @Mock
+    ProductRepository productRepository;
+    @Mock
+    ProductNameIndex nameIndex;
+    @Mock
+    SkuBloomFilter skuFilter;
+    @Mock
+    CatalogAggregates aggregates;
+    @Mock
+    RoleCache roleCache;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductCache productCache = new ProductCache(true, 100, Duration.ofMinutes(1), meterRegistry);
+    private final CatalogRevision catalogRevision = new CatalogRevision();
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(notifier.node()).thenReturn("self");
+        listener = new CacheInvalidationListener(new DataSourceProperties(), notifier, productCache, catalogRevision, productRepository,
+                nameIndex, skuFilter, aggregates, roleCache, transactionManager,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+    }
+
+    @Test
+    public void productChanges_splitIntoBoundedPayloadsAndDecodeBack() {
+        List<InvalidationMessage.Change> changes = LongStream.rangeClosed(1, 1000)
+                .mapToObj(id -> new InvalidationMessage.Change(id, id * 3, id % 10 == 0))
+                .toList();
+
+        List<String> payloads = InvalidationMessage.encodeProducts("node1", 42L, changes, 500);
+
+        assertThat(payloads).hasSizeGreaterThan(1).allSatisfy(payload -> assertThat(payload.length()).isLessThanOrEqualTo(500));
+        assertThat(payloads.stream().map(InvalidationMessage::decode).flatMap(message -> message.changes().stream()))
+                .containsExactlyElementsOf(changes);
+        assertThat(InvalidationMessage.decode(payloads.get(0)).node()).isEqualTo("node1");
+    }
+
+    @Test
+    public void remoteChange_fencesCacheAdvancesRevisionAndUpdatesViews() {
+        productCache.put(dto(1L, 0L));
+        String revision = catalogRevision.current();
+        when(productRepository.findSummariesByIdIn(List.of(1L)))
+                .thenReturn(List.of(new ProductSummary(1L, "SKU-1", "Renamed", new BigDecimal("10.00"), 3, 1L)));
+
+        listener.handle("p other " + System.currentTimeMillis() + " 1:1,2:4:d");
+
+        assertThat(productCache.get(1L)).isNull();
+        assertThat(catalogRevision.current()).isNotEqualTo(revision);
+        ArgumentCaptor<ProductChangedEvent> events = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(nameIndex, times(2)).onProductChanged(events.capture());
+        assertThat(events.getAllValues().get(0).after().name()).isEqualTo("Renamed");
+        assertThat(events.getAllValues().get(1).isDeleted()).isTrue();
+        verify(aggregates).refresh();
+        verify(aggregates, never()).onProductChanged(any());
+        verify(skuFilter, never()).onProductChanged(any());
+        assertThat(meterRegistry.get("cache.invalidation.lag").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void ownChangesAreSkipped() {
+        listener.handle("p self " + System.currentTimeMillis() + " 1:1");
+
+        verifyNoInteractions(productRepository, aggregates, nameIndex);
+    }
+
+    @Test
+    public void inMemoryViewsAreBypassedOnceTheLeaseRunsOutUntilAHeartbeatReturns() {
+        productCache.put(dto(1L, 0L));
+        productCache.trustUntil(System.nanoTime() - 1);
+        assertThat(productCache.get(1L)).isNull();
+        assertThat(catalogRevision.current()).isEqualTo(catalogRevision.current());
+
+        catalogRevision.trustUntil(System.nanoTime() - 1);
+        assertThat(catalogRevision.current()).isNotEqualTo(catalogRevision.current());
+
+        long sentAt = System.nanoTime();
+        listener.handle("h self " + sentAt);
+        assertThat(productCache.get(1L)).isNotNull();
+        assertThat(catalogRevision.current()).isEqualTo(catalogRevision.current());
+        verify(nameIndex).trustUntil(sentAt + Duration.ofSeconds(5).toNanos());
+        verify(aggregates).trustUntil(sentAt + Duration.ofSeconds(5).toNanos());
+    }
+
+    private static ProductResponseDto dto(Long id, Long version) {
+        return ProductResponseDto.builder().id(id).name("Product" + id).version(version).build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.catalogservice;
+
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductSnapshot;
+import com.catalogservice.event.ProductStockChangedEvent;
+import com.catalogservice.service.aggregate.CatalogAggregates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class CatalogAggregatesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, name VARCHAR(255), price NUMERIC(10, 2), stock INT)");
+    }
+
+    @Test
+    public void seededTotalsAndBuckets() {
+        insert(1L, "Phone", "5.00", 2);
+        insert(2L, "Tablet", "10.00", 0);
+        insert(3L, "Phone case", "75.50", 4);
+        CatalogAggregates aggregates = loaded();
+
+        CatalogAggregates.Totals totals = aggregates.totals();
+
+        assertThat(totals.products()).isEqualTo(3);
+        assertThat(totals.outOfStock()).isEqualTo(1);
+        assertThat(totals.totalStock()).isEqualTo(6);
+        assertThat(totals.stockValue()).isEqualByComparingTo("312.00");
+        assertThat(totals.priceBuckets()).extracting(CatalogAggregates.PriceBucket::count).containsExactly(1L, 1L, 1L);
+        assertThat(totals.priceBuckets().get(2).to()).isNull();
+        assertThat(meterRegistry.get("catalog.products.out.of.stock").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void notReadyOnceTheLeaseRunsOut() {
+        insert(1L, "Phone", "5.00", 2);
+        CatalogAggregates aggregates = loaded();
+
+        aggregates.trustUntil(System.nanoTime() - 1);
+        assertThat(aggregates.isReady()).isFalse();
+
+        aggregates.trustUntil(System.nanoTime() + Duration.ofMinutes(1).toNanos());
+        assertThat(aggregates.isReady()).isTrue();
+    }
+
+    @Test
+    public void committedChangesMoveCountersBySnapshots() {
+        insert(1L, "Phone", "5.00", 2);
+        CatalogAggregates aggregates = loaded();
+
+        aggregates.onProductChanged(ProductChangedEvent.created(snapshot(2L, "60.00", 1, 0L)));
+        aggregates.onProductChanged(ProductChangedEvent.updated(snapshot(1L, "5.00", 2, 0L), snapshot(1L, "20.00", 2, 1L)));
+        aggregates.onStockChanged(new ProductStockChangedEvent(2L, new BigDecimal("60.00"), 1, 0, 1L));
+
+        CatalogAggregates.Totals totals = aggregates.totals();
+        assertThat(totals.products()).isEqualTo(2);
+        assertThat(totals.outOfStock()).isEqualTo(1);
+        assertThat(totals.totalStock()).isEqualTo(2);
+        assertThat(totals.stockValue()).isEqualByComparingTo("40.00");
+        assertThat(totals.priceBuckets()).extracting(CatalogAggregates.PriceBucket::count).containsExactly(0L, 1L, 1L);
+
+        aggregates.onProductChanged(ProductChangedEvent.deleted(snapshot(2L, "60.00", 0, 1L)));
+        assertThat(aggregates.totals().products()).isEqualTo(1);
+        assertThat(aggregates.totals().outOfStock()).isZero();
+    }
+
+    @Test
+    public void totalsByNameAreGroupedInTheDatabase() {
+        insert(1L, "Phone", "5.00", 2);
+        insert(2L, "Tablet", "10.00", 0);
+        insert(3L, "Phone case", "75.50", 4);
+        insert(4L, "100%_phone", "50.00", 1);
+        CatalogAggregates aggregates = aggregates();
+
+        CatalogAggregates.Totals phones = aggregates.totalsByName("PHONE");
+        assertThat(phones.products()).isEqualTo(3);
+        assertThat(phones.outOfStock()).isZero();
+        assertThat(phones.priceBuckets()).extracting(CatalogAggregates.PriceBucket::count).containsExactly(1L, 0L, 2L);
+        assertThat(aggregates.totalsByName("%_").products()).isEqualTo(1);
+        assertThat(aggregates.totalsByName("watch").products()).isZero();
+    }
+
+    @Test
+    public void refreshPicksUpRowsChangedElsewhere() {
+        insert(1L, "Phone", "5.00", 2);
+        CatalogAggregates aggregates = loaded();
+        insert(2L, "Tablet", "60.00", 3);
+
+        aggregates.refresh();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> aggregates.totals().products() == 2);
+        assertThat(aggregates.isReady()).isTrue();
+    }
+
+    private CatalogAggregates loaded() {
+        CatalogAggregates aggregates = aggregates();
+        aggregates.startLoading();
+        await().atMost(Duration.ofSeconds(5)).until(aggregates::isReady);
+        return aggregates;
+    }
+
+    private CatalogAggregates aggregates() {
+        return new CatalogAggregates(jdbcTemplate, new DatabasePlatform(jdbcTemplate), true, Duration.ofMillis(10), "10,50", meterRegistry);
+    }
+
+    private void insert(Long id, String name, String price, int stock) {
+        jdbcTemplate.update("INSERT INTO product (id, name, price, stock) VALUES (?, ?, ?, ?)", id, name, new BigDecimal(price), stock);
+    }
+
+    private static ProductSnapshot snapshot(Long id, String price, int stock, Long version) {
+        return new ProductSnapshot(id, "Product" + id, "SKU-" + id, new BigDecimal(price), stock, version);
+    }
+}
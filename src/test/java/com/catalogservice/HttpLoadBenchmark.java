@@ -0,0 +1,317 @@
+package com.catalogservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load test: requests are started at a fixed total arrival rate, split across endpoints by the mix,
+ * whether or not earlier responses have arrived. Latency is measured from the scheduled start, so a stalled server
+ * shows up in the percentiles instead of slowing the generator down (no coordinated omission).
+ * <p>
+ * Boots {@link CatalogServiceApplication} against PostgreSQL in Testcontainers ({@code load.db=postgres}) or an
+ * in-memory H2 ({@code load.db=h2}), seeds products and a login user, warms up, then measures. Per endpoint it reports
+ * throughput and HdrHistogram p50/p90/p99/p99.9/max, printed as a table and written as JSON to {@code load.output}.
+ * <p>
+ * Run with: {@code mvn test -Dtest=HttpLoadBenchmark -Dbenchmark=true [-Dload.db=h2] [-Dload.rate=500]
+ * [-Dload.seconds=30] [-Dload.warmup-seconds=10] [-Dload.mix=get:50,list:20,search:15,create:5,update:5,login:5]
+ * [-Dload.products=20000] [-Dload.max-in-flight=2000] [-Dload.output=target/load/result.json]}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class HttpLoadBenchmark {
+    private static final String EMAIL = "load@example.com";
+    private static final String PASSWORD = "loadPassword1";
+    private static final String[] WORDS = {"phone", "laptop", "tablet", "watch", "pro", "max", "mini", "air"};
+
+    @Test
+    void openModelLoad() throws Exception {
+        String db = System.getProperty("load.db", "postgres");
+        int rate = Integer.getInteger("load.rate", 500);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.seconds", 30));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 10));
+        int products = Integer.getInteger("load.products", 20_000);
+        int maxInFlight = Integer.getInteger("load.max-in-flight", 2000);
+        Map<String, Integer> mix = parseMix(System.getProperty("load.mix", "get:50,list:20,search:15,create:5,update:5,login:5"));
+        File output = new File(System.getProperty("load.output", "target/load/result.json"));
+
+        PostgreSQLContainer<?> postgres = null;
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "catalog.rate-limit.enabled=false",
+                "logging.level.com.catalogservice=WARN"));
+        if("postgres".equals(db)) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            properties.add("spring.datasource.url=" + postgres.getJdbcUrl());
+            properties.add("spring.datasource.username=" + postgres.getUsername());
+            properties.add("spring.datasource.password=" + postgres.getPassword());
+        } else if("h2".equals(db)) {
+            // V2 uses PostgreSQL-only expression indexes, so H2 gets its schema from Hibernate instead
+            properties.add("spring.flyway.enabled=false");
+        } else {
+            throw new IllegalArgumentException("load.db must be postgres or h2: " + db);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CatalogServiceApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run()) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            try {
+                long[] ids = seed(context.getBean(JdbcTemplate.class), client, baseUrl, products, "h2".equals(db));
+                List<Scenario> scenarios = scenarios(mix, ids);
+
+                run(client, baseUrl, scenarios, rate, warmup, maxInFlight);
+                scenarios.forEach(Scenario::reset);
+                Instant startedAt = Instant.now();
+                run(client, baseUrl, scenarios, rate, duration, maxInFlight);
+
+                report(output, db, rate, duration, startedAt, scenarios);
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            if(postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+
+    private static long[] seed(JdbcTemplate jdbcTemplate, HttpClient client, String baseUrl, int products, boolean h2) throws Exception {
+        if(h2) {
+            jdbcTemplate.update("INSERT INTO roles (name) SELECT 'ROLE_USER' WHERE NOT EXISTS (SELECT 1 FROM roles WHERE name = 'ROLE_USER')");
+        }
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= products; i++) {
+            ndjson.append("{\"sku\":\"LOAD-").append(i)
+                    .append("\",\"name\":\"").append(WORDS[i % 4]).append(' ').append(WORDS[4 + (i / 4) % 4]).append(' ').append(i)
+                    .append("\",\"description\":\"load row\",\"price\":").append(1 + i % 5000)
+                    .append(",\"stock\":").append(i % 50).append("}\n");
+        }
+        expectSuccess(client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/products/import?format=ndjson"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString()));
+        expectSuccess(client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + EMAIL + "\",\"username\":\"load\",\"password\":\"" + PASSWORD + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString()));
+        return jdbcTemplate.queryForList("SELECT id FROM product", Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void expectSuccess(HttpResponse<String> response) {
+        if(response.statusCode() >= 400) {
+            throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static List<Scenario> scenarios(Map<String, Integer> mix, long[] ids) {
+        AtomicLong created = new AtomicLong();
+        List<Scenario> scenarios = new ArrayList<>();
+        mix.forEach((name, weight) -> scenarios.add(new Scenario(name, weight, switch (name) {
+            case "get" -> () -> get("/api/v1/products/" + randomId(ids));
+            case "list" -> () -> get("/api/v1/products?page=" + ThreadLocalRandom.current().nextInt(50)
+                    + "&size=20&sort=price,desc&count=estimated");
+            case "search" -> () -> get("/api/v1/products/search?query=" + WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)]
+                    + "&size=20&count=none");
+            case "create" -> () -> json("POST", "/api/v1/products", "{\"sku\":\"LOAD-NEW-" + created.incrementAndGet()
+                    + "\",\"name\":\"Created product\",\"price\":10,\"stock\":1}");
+            case "update" -> () -> json("PUT", "/api/v1/products/" + randomId(ids),
+                    "{\"name\":\"Updated product\",\"price\":" + (1 + ThreadLocalRandom.current().nextInt(5000)) + ",\"stock\":5}");
+            case "login" -> () -> json("POST", "/auth/login", "{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}");
+            default -> throw new IllegalArgumentException("Unknown load.mix endpoint: " + name);
+        })));
+        return scenarios;
+    }
+
+    private static void run(HttpClient client, String baseUrl, List<Scenario> scenarios, int rate, Duration duration,
+                            int maxInFlight) throws InterruptedException {
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long requests = duration.toNanos() / intervalNanos;
+        for (long i = 0; i < requests; i++) {
+            long scheduledAt = start + i * intervalNanos;
+            long wait = scheduledAt - System.nanoTime();
+            if(wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario scenario = pick(scenarios, totalWeight);
+            if(!inFlight.tryAcquire()) {
+                // the server fell behind by more than max-in-flight requests; count instead of queueing without bound
+                scenario.dropped.increment();
+                continue;
+            }
+            HttpRequest request = scenario.request().build(baseUrl);
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        scenario.record(System.nanoTime() - scheduledAt, error == null && response.statusCode() < 400);
+                        inFlight.release();
+                    });
+        }
+        if(!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Requests still in flight after 60s");
+        }
+        inFlight.release(maxInFlight);
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            roll -= scenario.weight();
+            if(roll < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private static void report(File output, String db, int rate, Duration duration, Instant startedAt,
+                               List<Scenario> scenarios) throws Exception {
+        double seconds = duration.toNanos() / 1_000_000_000.0;
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        List<String> table = new ArrayList<>();
+        table.add(String.format("%-8s %10s %10s %8s %8s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "req/s", "errors", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Scenario scenario : scenarios) {
+            Histogram histogram = scenario.latencies;
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("endpoint", scenario.name());
+            endpoint.put("requests", histogram.getTotalCount());
+            endpoint.put("throughput", histogram.getTotalCount() / seconds);
+            endpoint.put("errors", scenario.errors.sum());
+            endpoint.put("dropped", scenario.dropped.sum());
+            endpoint.put("p50Ms", millis(histogram, 50));
+            endpoint.put("p90Ms", millis(histogram, 90));
+            endpoint.put("p99Ms", millis(histogram, 99));
+            endpoint.put("p999Ms", millis(histogram, 99.9));
+            endpoint.put("maxMs", histogram.getMaxValue() / 1000.0);
+            endpoints.add(endpoint);
+            table.add(String.format("%-8s %10d %10.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f", scenario.name(),
+                    histogram.getTotalCount(), histogram.getTotalCount() / seconds, scenario.errors.sum(), scenario.dropped.sum(),
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", startedAt.toString());
+        result.put("db", db);
+        result.put("targetRate", rate);
+        result.put("durationSeconds", duration.toSeconds());
+        result.put("mix", scenarios.stream().collect(LinkedHashMap::new, (map, s) -> map.put(s.name(), s.weight()), Map::putAll));
+        result.put("endpoints", endpoints);
+
+        File directory = output.getAbsoluteFile().getParentFile();
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + directory);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, result);
+        table.forEach(System.out::println);
+        System.out.println("Results written to " + output.getAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split(":");
+            if(entry.length != 2) {
+                throw new IllegalArgumentException("load.mix entries must look like name:weight: " + part);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if(weight > 0) {
+                mix.put(entry[0].trim(), weight);
+            }
+        }
+        if(mix.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no endpoint with a positive weight");
+        }
+        return mix;
+    }
+
+    private static long randomId(long[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static RequestTemplate get(String path) {
+        return baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static RequestTemplate json(String method, String path, String body) {
+        return baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private interface RequestTemplate {
+        HttpRequest build(String baseUrl);
+    }
+
+    private interface RequestFactory {
+        RequestTemplate next();
+    }
+
+    private record Scenario(String name, int weight, RequestFactory factory, ConcurrentHistogram latencies,
+                            LongAdder errors, LongAdder dropped) {
+
+        Scenario(String name, int weight, RequestFactory factory) {
+            // microseconds, up to one minute, 3 significant digits
+            this(name, weight, factory, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3), new LongAdder(), new LongAdder());
+        }
+
+        RequestTemplate request() {
+            return factory.next();
+        }
+
+        void record(long latencyNanos, boolean success) {
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), latencies.getHighestTrackableValue()));
+            if(!success) {
+                errors.increment();
+            }
+        }
+
+        void reset() {
+            latencies.reset();
+            errors.reset();
+            dropped.reset();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.catalogservice;
+
+import com.catalogservice.exceptions.PasswordHashingBusyException;
+import com.catalogservice.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PasswordHasherTest {
+
+    @Test
+    public void matches_rejectsAtOnceWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordHasher hasher = new PasswordHasher(encoder, 1, 1, 2, meterRegistry);
+        try {
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> hasher.matches("p", "h"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> hasher.matches("p", "h"));
+            while (meterRegistry.get("auth.hashing.queue.size").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> hasher.matches("p", "h"))
+                    .isInstanceOf(PasswordHashingBusyException.class)
+                    .extracting("retryAfterSeconds").isEqualTo(2L);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(meterRegistry.get("auth.hashing.rejected").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("auth.hashing.time").tag("operation", "matches").timer().count()).isEqualTo(2);
+        } finally {
+            hasher.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.catalogservice;
+
+import com.catalogservice.dto.ProductResponseDto;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductSnapshot;
+import com.catalogservice.event.ProductStockChangedEvent;
+import com.catalogservice.service.cache.ProductCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProductCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductCache productCache = new ProductCache(true, 100, Duration.ofMinutes(1), meterRegistry);
+
+    @Test
+    public void get_returnsCachedValueAndCountsHitsAndMisses() {
+        assertThat(productCache.get(1L)).isNull();
+
+        productCache.put(dto(1L, 0L));
+
+        assertThat(productCache.get(1L).getVersion()).isEqualTo(0L);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void put_olderVersionThanCommittedChangeIsRefused() {
+        productCache.put(dto(1L, 0L));
+
+        productCache.onProductChanged(ProductChangedEvent.updated(snapshot(1L, 0L), snapshot(1L, 1L)));
+        assertThat(productCache.get(1L)).isNull();
+
+        productCache.put(dto(1L, 0L));
+        assertThat(productCache.get(1L)).isNull();
+
+        productCache.put(dto(1L, 1L));
+        assertThat(productCache.get(1L).getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void put_afterDeleteIsRefused() {
+        productCache.put(dto(1L, 4L));
+
+        productCache.onProductChanged(ProductChangedEvent.deleted(snapshot(1L, 4L)));
+        productCache.put(dto(1L, 4L));
+
+        assertThat(productCache.get(1L)).isNull();
+    }
+
+    @Test
+    public void stockChangeFencesCachedProduct() {
+        productCache.put(dto(1L, 2L));
+
+        productCache.onStockChanged(new ProductStockChangedEvent(1L, new BigDecimal("10.00"), 4, 5, 3L));
+        productCache.put(dto(1L, 2L));
+
+        assertThat(productCache.get(1L)).isNull();
+    }
+
+    @Test
+    public void disabledCacheNeverServes() {
+        ProductCache disabled = new ProductCache(false, 100, Duration.ofMinutes(1), meterRegistry);
+
+        disabled.put(dto(1L, 0L));
+
+        assertThat(disabled.get(1L)).isNull();
+    }
+
+    private static ProductResponseDto dto(Long id, Long version) {
+        return ProductResponseDto.builder().id(id).name("Product" + id).version(version).build();
+    }
+
+    private static ProductSnapshot snapshot(Long id, Long version) {
+        return new ProductSnapshot(id, "Product" + id, "SKU-" + id, new BigDecimal("10.00"), 1, version);
+    }
+}
@@ -0,0 +1,78 @@
+package com.catalogservice;
+
+import com.catalogservice.entity.Product;
+import com.catalogservice.mappers.ProductMapper;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.service.export.ExportFormat;
+import com.catalogservice.service.export.ProductExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductExporterTest {
+
+    @Mock
+    ProductRepository productRepository;
+    @Mock
+    EntityManager entityManager;
+
+    private ProductExporter productExporter;
+
+    @BeforeEach
+    void setUp() {
+        productExporter = new ProductExporter(productRepository, new ProductMapper(), entityManager,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    public void export_ndjsonWritesOneObjectPerLineAndDetachesRows() {
+        when(productRepository.streamAll()).thenReturn(Stream.of(product(1L, "Phone", null), product(2L, "Tablet", null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = productExporter.export(ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":1,\"name\":\"Phone\"");
+        assertThat(lines[1]).startsWith("{\"id\":2,\"name\":\"Tablet\"");
+        verify(entityManager, times(2)).detach(any(Product.class));
+    }
+
+    @Test
+    public void export_csvQuotesFieldsWithSeparators() {
+        when(productRepository.streamAll()).thenReturn(Stream.of(product(1L, "Phone, \"Pro\"", "line1\nline2")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        productExporter.export(ExportFormat.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("id,sku,name,description,price,stock,createdAt,updatedAt,version\n");
+        assertThat(csv).contains("1,SKU-1,\"Phone, \"\"Pro\"\"\",\"line1\nline2\",10.00,3,");
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Product product = new Product(name, description, new BigDecimal("10.00"), 3, "SKU-" + id);
+        ReflectionTestUtils.setField(product, "id", id);
+        ReflectionTestUtils.setField(product, "version", 0L);
+        return product;
+    }
+}
@@ -0,0 +1,127 @@
+package com.catalogservice;
+
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.dto.ImportReportDto;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.mappers.ProductMapper;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.service.imports.ImportFormat;
+import com.catalogservice.service.imports.ProductImporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The PostgreSQL {@code COPY} + {@code INSERT ... ON CONFLICT} merge path of {@link ProductImporter}, against a real database.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class ProductImporterPostgresTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<ProductChangedEvent> events = new ArrayList<>();
+    private ProductImporter productImporter;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DELETE FROM product");
+        events.clear();
+        productImporter = new ProductImporter(new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ProductMapper(), mock(ProductRepository.class),
+                jdbcTemplate, new DatabasePlatform(jdbcTemplate), mock(EntityManager.class),
+                new DataSourceTransactionManager(dataSource), event -> events.add((ProductChangedEvent) event),
+                new SimpleMeterRegistry(), 10, 10);
+    }
+
+    @Test
+    public void importProducts_mergesChunkBySku() {
+        insert("SKU-1", "Phone", "10.00", 3);
+        insert("SKU-2", "Tablet", "20.00", 1);
+        String csv = """
+                sku,name,price,stock
+                SKU-1,Phone,12.50,3
+                SKU-2,Tablet,20.00,1
+                SKU-3,Watch,5,1
+                SKU-3,"Watch ""2\""",7,2
+                """;
+
+        ImportReportDto report = productImporter.importProducts(ImportFormat.CSV, stream(csv));
+
+        assertThat(report.getRows()).isEqualTo(4);
+        assertThat(report.getInserted()).isEqualTo(1);
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(report.getUnchanged()).isEqualTo(1);
+
+        Map<String, Object> updated = row("SKU-1");
+        assertThat((BigDecimal) updated.get("price")).isEqualByComparingTo("12.50");
+        assertThat(updated.get("version")).isEqualTo(1L);
+        assertThat(row("SKU-2").get("version")).isEqualTo(0L);
+        Map<String, Object> inserted = row("SKU-3");
+        assertThat(inserted.get("name")).isEqualTo("Watch \"2\"");
+        assertThat((BigDecimal) inserted.get("price")).isEqualByComparingTo("7");
+        assertThat(inserted.get("stock")).isEqualTo(2);
+    }
+
+    @Test
+    public void importProducts_publishesPreviousSnapshotForUpdates() {
+        long id = insert("SKU-1", "Phone", "10.00", 3);
+        String csv = """
+                sku,name,price,stock
+                SKU-1,Phone Pro,11.00,4
+                SKU-9,Camera,5,1
+                """;
+
+        productImporter.importProducts(ImportFormat.CSV, stream(csv));
+
+        assertThat(events).hasSize(2);
+        ProductChangedEvent update = events.stream().filter(event -> event.before() != null).findFirst().orElseThrow();
+        assertThat(update.productId()).isEqualTo(id);
+        assertThat(update.before().name()).isEqualTo("Phone");
+        assertThat(update.before().price()).isEqualByComparingTo("10.00");
+        assertThat(update.before().stock()).isEqualTo(3);
+        assertThat(update.before().version()).isEqualTo(0L);
+        assertThat(update.after().name()).isEqualTo("Phone Pro");
+        assertThat(update.after().version()).isEqualTo(1L);
+        ProductChangedEvent create = events.stream().filter(event -> event.before() == null).findFirst().orElseThrow();
+        assertThat(create.after().sku()).isEqualTo("SKU-9");
+    }
+
+    private long insert(String sku, String name, String price, int stock) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, description, price, stock, created_at, updated_at, version, sku)
+                VALUES (?, NULL, ?, ?, now(), now(), 0, ?) RETURNING id""", Long.class, name, new BigDecimal(price), stock, sku);
+    }
+
+    private Map<String, Object> row(String sku) {
+        return jdbcTemplate.queryForMap("SELECT name, price, stock, version FROM product WHERE sku = ?", sku);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
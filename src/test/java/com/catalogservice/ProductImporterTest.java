@@ -0,0 +1,145 @@
+package com.catalogservice;
+
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.dto.ImportReportDto;
+import com.catalogservice.entity.Product;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.exceptions.ImportAbortedException;
+import com.catalogservice.mappers.ProductMapper;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.service.imports.ImportFormat;
+import com.catalogservice.service.imports.ProductImporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImporterTest {
+
+    @Mock
+    ProductRepository productRepository;
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Mock
+    DatabasePlatform databasePlatform;
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    private ProductImporter productImporter;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        productImporter = new ProductImporter(new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ProductMapper(), productRepository,
+                jdbcTemplate, databasePlatform, entityManager, transactionManager, eventPublisher,
+                new SimpleMeterRegistry(), 2, 10);
+    }
+
+    @Test
+    public void importProducts_csvUpsertsBySkuInChunksAndReportsRejects() {
+        Product existing = new Product("Phone", null, new BigDecimal("10.00"), 3, "SKU-1");
+        ReflectionTestUtils.setField(existing, "id", 1L);
+        ReflectionTestUtils.setField(existing, "version", 0L);
+        Product unchanged = new Product("Tablet", null, new BigDecimal("20.00"), 1, "SKU-2");
+        when(productRepository.findAllBySkuIn(anyCollection()))
+                .thenReturn(List.of(existing, unchanged))
+                .thenReturn(List.of());
+        String csv = """
+                sku,name,price,stock,extra
+                SKU-1,"Phone, ""Pro\""",12.50,3,x
+                SKU-2,Tablet,20.00,1,x
+                SKU-3,Watch,abc,1,x
+                SKU-4,W,5,1,x
+                SKU-5,Camera,5,1,x
+                """;
+
+        ImportReportDto report = productImporter.importProducts(ImportFormat.CSV, stream(csv));
+
+        assertThat(report.getRows()).isEqualTo(5);
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(report.getUnchanged()).isEqualTo(1);
+        assertThat(report.getInserted()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(report.getRejects()).extracting("line").containsExactly(4L, 5L);
+        assertThat(report.getRejects().get(0).getDetails()).containsKey("price");
+        assertThat(existing.getName()).isEqualTo("Phone, \"Pro\"");
+        assertThat(existing.getPrice()).isEqualByComparingTo("12.50");
+        verify(transactionManager, times(2)).commit(any());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    public void importProducts_ndjsonKeepsLastRowPerSkuAndRejectsMalformedLines() {
+        when(productRepository.findAllBySkuIn(anyCollection())).thenReturn(List.of());
+        String ndjson = """
+                {"sku":"SKU-7","name":"Speaker","price":5,"stock":1}
+
+                {"sku":"SKU-7","name":"Speaker 2","price":6,"stock":2}
+                {not json
+                """;
+
+        ImportReportDto report = productImporter.importProducts(ImportFormat.NDJSON, stream(ndjson));
+
+        ArgumentCaptor<ProductChangedEvent> events = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(events.capture());
+        assertThat(events.getValue().after().name()).isEqualTo("Speaker 2");
+        assertThat(report.getRows()).isEqualTo(3);
+        assertThat(report.getInserted()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(1);
+        assertThat(report.getRejects().get(0).getLine()).isEqualTo(4);
+    }
+
+    @Test
+    public void importProducts_unterminatedQuoteAbortsWithCommittedCounts() {
+        when(productRepository.findAllBySkuIn(anyCollection())).thenReturn(List.of());
+        String csv = """
+                sku,name,price,stock
+                SKU-1,Phone,10,1
+                SKU-2,Tablet,20,1
+                SKU-3,Watch,30,1
+                SKU-4,"Camera,40,1
+                """;
+
+        assertThatThrownBy(() -> productImporter.importProducts(ImportFormat.CSV, stream(csv)))
+                .isInstanceOfSatisfying(ImportAbortedException.class, e -> {
+                    assertThat(e.getMessage()).contains("line 5");
+                    assertThat(e.getReport().getInserted()).isEqualTo(2);
+                    assertThat(e.getReport().getRows()).isEqualTo(3);
+                });
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
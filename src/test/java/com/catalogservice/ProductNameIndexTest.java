@@ -0,0 +1,120 @@
+package com.catalogservice;
+
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductSnapshot;
+import com.catalogservice.repository.ProductNameView;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.service.search.ProductNameIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductNameIndexTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Test
+    public void search_matchesSubstringsIgnoringCase() {
+        ProductNameIndex index = loadedIndex(List.of(
+                view(1L, "Iphone 13"),
+                view(2L, "iPhone 14 Pro"),
+                view(3L, "Pixel 8"),
+                view(4L, "Phone case")));
+
+        assertThat(index.search("PHONE", Pageable.unpaged()).ids()).containsExactly(1L, 2L, 4L);
+        assertThat(index.search("ph", Pageable.unpaged()).ids()).containsExactly(1L, 2L, 4L);
+        assertThat(index.search("13", Pageable.unpaged()).ids()).containsExactly(1L);
+        assertThat(index.search("e 1", Pageable.unpaged()).ids()).containsExactly(1L, 2L);
+        assertThat(index.search("phone 15", Pageable.unpaged()).ids()).isEmpty();
+    }
+
+    @Test
+    public void search_pagesAndSortsById() {
+        ProductNameIndex index = loadedIndex(List.of(
+                view(1L, "Phone C"),
+                view(2L, "Phone A"),
+                view(3L, "Phone B")));
+
+        ProductNameIndex.Hits firstPage = index.search("phone", PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+        ProductNameIndex.Hits secondPage = index.search("phone", PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertThat(firstPage.ids()).containsExactly(3L, 2L);
+        assertThat(secondPage.ids()).containsExactly(1L);
+        assertThat(firstPage.total()).isEqualTo(3);
+        assertThat(index.canServe(Sort.by("id"))).isTrue();
+        assertThat(index.canServe(Sort.by("name"))).isFalse();
+        assertThat(index.canServe(Sort.by("price"))).isFalse();
+    }
+
+    @Test
+    public void onProductChanged_updatesAndRemovesPostings() {
+        ProductNameIndex index = loadedIndex(List.of(view(1L, "Phone")));
+
+        index.onProductChanged(ProductChangedEvent.created(snapshot(2L, "Tablet")));
+        index.onProductChanged(ProductChangedEvent.updated(snapshot(1L, "Phone"), snapshot(1L, "Laptop")));
+
+        assertThat(index.search("phone", Pageable.unpaged()).ids()).isEmpty();
+        assertThat(index.search("lap", Pageable.unpaged()).ids()).containsExactly(1L);
+        assertThat(index.search("ta", Pageable.unpaged()).ids()).containsExactly(2L);
+
+        index.onProductChanged(ProductChangedEvent.deleted(snapshot(2L, "Tablet")));
+
+        assertThat(index.search("tablet", Pageable.unpaged()).total()).isZero();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void canServe_onlyWhileLeaseHolds() {
+        ProductNameIndex index = loadedIndex(List.of(view(1L, "Phone")));
+
+        index.trustUntil(System.nanoTime() - 1);
+        assertThat(index.canServe(Sort.unsorted())).isFalse();
+
+        index.trustUntil(System.nanoTime() + Duration.ofMinutes(1).toNanos());
+        assertThat(index.canServe(Sort.unsorted())).isTrue();
+    }
+
+    private ProductNameIndex loadedIndex(List<ProductNameView> rows) {
+        when(productRepository.findNamesByIdGreaterThan(eq(0L), any(Limit.class))).thenReturn(rows);
+        when(productRepository.findNamesByIdGreaterThan(eq(rows.get(rows.size() - 1).getId()), any(Limit.class))).thenReturn(List.of());
+        ProductNameIndex index = new ProductNameIndex(productRepository, true, 100);
+        index.startLoading();
+        await().atMost(Duration.ofSeconds(5)).until(() -> index.canServe(Sort.unsorted()));
+        return index;
+    }
+
+    private static ProductSnapshot snapshot(Long id, String name) {
+        return new ProductSnapshot(id, name, "SKU-" + id, new BigDecimal("10.00"), 1, 0L);
+    }
+
+    private static ProductNameView view(Long id, String name) {
+        return new ProductNameView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package com.catalogservice;
+
+import com.catalogservice.controller.ProductRestController;
+import com.catalogservice.dto.ProductResponseDto;
+import com.catalogservice.exceptions.RateLimitedException;
+import com.catalogservice.security.ratelimit.RequestRateLimiter;
+import com.catalogservice.service.ProductService;
+import com.catalogservice.service.cache.CatalogRevision;
+import com.catalogservice.service.export.ProductExporter;
+import com.catalogservice.service.filter.ProductFilter;
+import com.catalogservice.service.imports.ProductImporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductRestController.class)
+public class ProductRestControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @MockitoBean
+    ProductService productService;
+    @MockitoBean
+    CatalogRevision catalogRevision;
+    @MockitoBean
+    ProductExporter productExporter;
+    @MockitoBean
+    ProductImporter productImporter;
+    @MockitoBean
+    RequestRateLimiter requestRateLimiter;
+
+    @Test
+    void getProduct_returnsStrongEtagFromIdAndVersion() throws Exception {
+        when(productService.getById(7L)).thenReturn(ProductResponseDto.builder().id(7L).name("Product1").version(3L).build());
+
+        mockMvc.perform(get("/api/v1/products/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7-3\""));
+    }
+
+    @Test
+    void getProduct_notModifiedWithoutLoadingProduct() throws Exception {
+        when(productService.getVersionById(7L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/v1/products/7").header("If-None-Match", "\"7-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getById(any());
+    }
+
+    @Test
+    void getProducts_notModifiedWhileCatalogRevisionUnchanged() throws Exception {
+        when(catalogRevision.current()).thenReturn("abc.5");
+
+        mockMvc.perform(get("/api/v1/products").header("If-None-Match", "W/\"catalog-abc.5\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void getProductsByCursor_passesFiltersAndRejectsFields() throws Exception {
+        mockMvc.perform(get("/api/v1/products").param("cursor", "").param("inStock", "true"))
+                .andExpect(status().isOk());
+        verify(productService).getAllByCursor(eq(new ProductFilter(null, null, true, null, null, null)), eq(""), eq(20), any());
+
+        mockMvc.perform(get("/api/v1/products").param("cursor", "").param("fields", "id,name"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/products/search").param("query", "phone").param("cursor", "").param("fields", "id"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateProduct_passesIfMatchVersion() throws Exception {
+        when(productService.updateProduct(eq(7L), any(), eq(3L)))
+                .thenReturn(ProductResponseDto.builder().id(7L).name("Product1").version(4L).build());
+
+        mockMvc.perform(put("/api/v1/products/7")
+                        .header("If-Match", "\"7-3\"")
+                        .contentType("application/json")
+                        .content("{\"name\":\"Product1\",\"price\":10,\"stock\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7-4\""));
+    }
+
+    @Test
+    void deleteProduct_etagOfAnotherProductFailsPrecondition() throws Exception {
+        mockMvc.perform(delete("/api/v1/products/7").header("If-Match", "\"8-3\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(productService, never()).deleteProduct(any(), any());
+    }
+
+    @Test
+    void searchProducts_throttledClientGets429WithRetryAfter() throws Exception {
+        doThrow(new RateLimitedException("Rate limit exceeded for search", 2))
+                .when(requestRateLimiter).acquireSearch(anyString());
+
+        mockMvc.perform(get("/api/v1/products/search").param("query", "phone"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        verify(productService, never()).searchByName(any(), any(), any());
+    }
+}
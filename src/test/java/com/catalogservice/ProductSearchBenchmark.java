@@ -0,0 +1,117 @@
+package com.catalogservice;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * p50/p99 latency of the product name search page (page query + count) on PostgreSQL,
+ * comparing the derived {@code upper(name) like upper(?)} query with the trigram-indexed {@code name ilike ?} path.
+ * Run with: {@code mvn test -Dtest=ProductSearchBenchmark -Dbenchmark=true [-Dbenchmark.rows=1000000,10000000]}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ProductSearchBenchmark {
+    private static final String[] QUERIES = {"pho", "laptop", "pro max", "ultra", "black 12", "xq"};
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 200;
+    private static final String LIKE_PAGE_SQL =
+            "SELECT * FROM product WHERE upper(name) LIKE upper(?) ESCAPE '\\' ORDER BY id LIMIT 20";
+    private static final String LIKE_COUNT_SQL =
+            "SELECT count(*) FROM product WHERE upper(name) LIKE upper(?) ESCAPE '\\'";
+    private static final String TRIGRAM_PAGE_SQL =
+            "SELECT * FROM product WHERE name ILIKE ? ESCAPE '\\' ORDER BY id LIMIT 20";
+    private static final String TRIGRAM_COUNT_SQL =
+            "SELECT count(*) FROM product WHERE name ILIKE ? ESCAPE '\\'";
+
+    @Test
+    void searchLatency() throws SQLException {
+        long[] rowTargets = Arrays.stream(System.getProperty("benchmark.rows", "1000000,10000000").split(","))
+                .mapToLong(value -> Long.parseLong(value.trim()))
+                .sorted()
+                .toArray();
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")) {
+            postgres.start();
+            Flyway.configure()
+                    .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                    .load()
+                    .migrate();
+
+            try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+                long loaded = 0;
+                List<String> report = new ArrayList<>();
+                report.add(String.format("%-12s %-10s %10s %10s", "rows", "path", "p50 ms", "p99 ms"));
+                for (long target : rowTargets) {
+                    load(connection, loaded, target);
+                    loaded = target;
+                    report.add(measure(connection, target, "like", LIKE_PAGE_SQL, LIKE_COUNT_SQL));
+                    report.add(measure(connection, target, "trigram", TRIGRAM_PAGE_SQL, TRIGRAM_COUNT_SQL));
+                }
+                report.forEach(System.out::println);
+            }
+        }
+    }
+
+    private static void load(Connection connection, long from, long to) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO product (name, description, price, stock, created_at, updated_at, version, sku)
+                    SELECT (ARRAY['Phone','Laptop','Tablet','Watch','Camera','Speaker'])[1 + g % 6]
+                               || ' ' || (ARRAY['Pro','Max','Ultra','Mini','Air','Lite','Plus'])[1 + (g / 6) % 7]
+                               || ' ' || (ARRAY['black','white','blue','red','silver'])[1 + (g / 42) % 5]
+                               || ' ' || (g % 97),
+                           'benchmark row',
+                           1 + (g % 5000),
+                           g % 50,
+                           now(), now(), 0,
+                           'BENCH-' || g
+                    FROM generate_series(%d, %d) AS g
+                    """.formatted(from + 1, to));
+            statement.execute("ANALYZE product");
+        }
+    }
+
+    private static String measure(Connection connection, long rows, String path, String pageSql, String countSql) throws SQLException {
+        long[] samples = new long[MEASURED_ITERATIONS];
+        try (PreparedStatement page = connection.prepareStatement(pageSql);
+             PreparedStatement count = connection.prepareStatement(countSql)) {
+            for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+                String pattern = "%" + QUERIES[i % QUERIES.length] + "%";
+                long start = System.nanoTime();
+                execute(page, pattern);
+                execute(count, pattern);
+                long elapsed = System.nanoTime() - start;
+                if(i >= WARMUP_ITERATIONS) {
+                    samples[i - WARMUP_ITERATIONS] = elapsed;
+                }
+            }
+        }
+        Arrays.sort(samples);
+        return String.format("%-12d %-10s %10.2f %10.2f", rows, path, percentile(samples, 0.50), percentile(samples, 0.99));
+    }
+
+    private static void execute(PreparedStatement statement, String pattern) throws SQLException {
+        statement.setString(1, pattern);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+}
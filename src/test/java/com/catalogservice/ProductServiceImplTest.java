@@ -1,26 +1,63 @@
 package com.catalogservice;
 
+import com.catalogservice.config.DatabasePlatform;
+import com.catalogservice.dto.BatchCreateResponseDto;
+import com.catalogservice.dto.BatchItemResultDto;
+import com.catalogservice.dto.BatchItemStatus;
+import com.catalogservice.dto.CursorPageResponseDto;
+import com.catalogservice.dto.PriceBucketDto;
+import com.catalogservice.dto.PriceFacetsDto;
 import com.catalogservice.dto.ProductCreateRequestDto;
 import com.catalogservice.dto.ProductResponseDto;
 import com.catalogservice.dto.ProductUpdateRequestDto;
+import com.catalogservice.dto.StockAdjustmentItemDto;
+import com.catalogservice.dto.StockResponseDto;
 import com.catalogservice.entity.Product;
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductStockChangedEvent;
+import com.catalogservice.exceptions.AggregatesNotReadyException;
+import com.catalogservice.exceptions.DuplicateProductException;
+import com.catalogservice.exceptions.InsufficientStockException;
 import com.catalogservice.exceptions.NotFoundException;
+import com.catalogservice.exceptions.PreconditionFailedException;
 import com.catalogservice.mappers.ProductMapper;
 import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.repository.ProductStockView;
+import com.catalogservice.repository.ProductSummary;
 import com.catalogservice.service.ProductServiceImpl;
+import com.catalogservice.service.aggregate.CatalogAggregates;
+import com.catalogservice.service.cache.ProductCache;
+import com.catalogservice.service.count.CountMode;
+import com.catalogservice.service.count.CountedSlice;
+import com.catalogservice.service.count.ProductCountEstimator;
+import com.catalogservice.service.cursor.ProductCursorCodec;
+import com.catalogservice.service.fields.ProductFields;
+import com.catalogservice.service.filter.ProductFilter;
+import com.catalogservice.service.search.ProductNameIndex;
+import com.catalogservice.service.sku.SkuBloomFilter;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.CollectionUtils;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,6 +75,26 @@ public class ProductServiceImplTest {
     ProductServiceImpl productServiceImpl;
     @Spy
     ProductMapper productMapper;
+    @Spy
+    ProductCursorCodec cursorCodec;
+    @Mock
+    ProductCountEstimator countEstimator;
+    @Mock
+    DatabasePlatform databasePlatform;
+    @Mock
+    ProductNameIndex nameIndex;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    ProductCache productCache;
+    @Mock
+    SkuBloomFilter skuFilter;
+    @Mock
+    CatalogAggregates aggregates;
+    @Spy
+    Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    @Captor
+    ArgumentCaptor<List<Product>> productsCaptor;
 
     @Test
     public void createTest() {
@@ -144,12 +201,12 @@ public class ProductServiceImplTest {
         productUpdateRequestDto.setPrice(new BigDecimal("999.99"));
         productUpdateRequestDto.setStock(5);
 
-        when(productRepository.save(any(Product.class))).thenAnswer(inv -> inv.getArgument(0, Product.class));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(inv -> inv.getArgument(0, Product.class));
 
         ProductResponseDto productResponseDto = productServiceImpl.updateProduct(id, productUpdateRequestDto);
 
         ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
-        verify(productRepository, times(1)).save(captor.capture());
+        verify(productRepository, times(1)).saveAndFlush(captor.capture());
         Product product1 = captor.getValue();
 
         assertThat(product1.getName()).isEqualTo("iphone 13");
@@ -171,7 +228,7 @@ public class ProductServiceImplTest {
 
         InOrder inOrder = Mockito.inOrder(productRepository);
         inOrder.verify(productRepository).findById(eq(id));
-        inOrder.verify(productRepository).save(any(Product.class));
+        inOrder.verify(productRepository).saveAndFlush(any(Product.class));
         inOrder.verifyNoMoreInteractions();
     }
 
@@ -187,7 +244,7 @@ public class ProductServiceImplTest {
                 .hasMessageContaining("10");
 
         verify(productRepository, times(1)).findById(eq(id));
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
         verifyNoMoreInteractions(productRepository);
     }
 
@@ -205,7 +262,7 @@ public class ProductServiceImplTest {
                 .isInstanceOf(IllegalArgumentException.class);
 
         verify(productRepository, times(1)).findById(eq(id));
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -225,7 +282,7 @@ public class ProductServiceImplTest {
                 .isInstanceOf(IllegalArgumentException.class);
 
         verify(productRepository, times(1)).findById(eq(id));
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -245,7 +302,7 @@ public class ProductServiceImplTest {
                 .isInstanceOf(IllegalArgumentException.class);
 
         verify(productRepository, times(1)).findById(eq(id));
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -355,4 +412,552 @@ public class ProductServiceImplTest {
 
         verify(productRepository, times(1)).deleteById(eq(id));
     }
+
+    @Test
+    public void getAllByCursor_firstPageReturnsNextCursor() {
+        Product product1 = new Product("Aproduct1", "descProduct1", new BigDecimal("100"), 1, "1");
+        Product product2 = new Product("Bproduct2", "descProduct2", new BigDecimal("200"), 2, "2");
+        ReflectionTestUtils.setField(product1, "id", 1L);
+        ReflectionTestUtils.setField(product2, "id", 2L);
+        Sort sort = Sort.by(Sort.Direction.ASC, "price");
+        List<Product> productList = List.of(product1, product2);
+        Window<Product> window = Window.from(productList,
+                index -> ScrollPosition.forward(Map.of("price", productList.get(index).getPrice(), "id", productList.get(index).getId())),
+                true);
+
+        when(productRepository.findBy(eq(ScrollPosition.keyset()), eq(sort), eq(Limit.of(2)))).thenReturn(window);
+
+        CursorPageResponseDto<ProductResponseDto> page = productServiceImpl.getAllByCursor(null, 2, sort);
+
+        assertThat(page.getContent()).extracting(ProductResponseDto::getName).containsExactly("Aproduct1", "Bproduct2");
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getNextCursor()).isNotBlank();
+
+        ScrollPosition next = cursorCodec.decode(page.getNextCursor(), sort);
+        assertThat(next).isInstanceOf(KeysetScrollPosition.class);
+        assertThat(((KeysetScrollPosition) next).getKeys())
+                .containsEntry("price", new BigDecimal("200"))
+                .containsEntry("id", 2L);
+
+        verify(productRepository, times(1)).findBy(any(ScrollPosition.class), eq(sort), eq(Limit.of(2)));
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    public void getAllByCursor_cursorFromOtherSortIsRejected() {
+        String cursor = cursorCodec.encode(ScrollPosition.forward(Map.of("price", new BigDecimal("10"), "id", 5L)),
+                Sort.by(Sort.Direction.ASC, "price"));
+
+        assertThatThrownBy(() -> productServiceImpl.getAllByCursor(cursor, 2, Sort.by(Sort.Direction.DESC, "price")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(productRepository, never()).findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+    }
+
+    @Test
+    public void searchByNameByCursor_withIncorrectSortName() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "incorrectName");
+
+        assertThatThrownBy(() -> productServiceImpl.searchByNameByCursor("iphone", null, 2, sort))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(productRepository, never()).findBy(ArgumentMatchers.<Specification<Product>>any(), any());
+    }
+
+    @Test
+    public void getAll_countNone_skipsCountQuery() {
+        Product product1 = new Product("Aproduct1", "descProduct1", new BigDecimal("100"), 1, "1");
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        when(productRepository.findSliceBy(eq(pageRequest))).thenReturn(new SliceImpl<>(List.of(product1), pageRequest, true));
+
+        CountedSlice<ProductResponseDto> result = productServiceImpl.getAll(pageRequest, CountMode.NONE);
+
+        assertThat(result.countMode()).isEqualTo(CountMode.NONE);
+        assertThat(result.slice()).isNotInstanceOf(Page.class);
+        assertThat(result.slice().hasNext()).isTrue();
+        assertThat(result.slice().getContent()).extracting(ProductResponseDto::getName).containsExactly("Aproduct1");
+
+        verify(productRepository, times(1)).findSliceBy(eq(pageRequest));
+        verifyNoMoreInteractions(productRepository);
+        verifyNoInteractions(countEstimator);
+    }
+
+    @Test
+    public void getAll_countEstimated_usesEstimateAsTotal() {
+        Product product1 = new Product("Aproduct1", "descProduct1", new BigDecimal("100"), 1, "1");
+        Product product2 = new Product("Bproduct2", "descProduct2", new BigDecimal("200"), 2, "2");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(productRepository.findSliceBy(eq(pageRequest))).thenReturn(new SliceImpl<>(List.of(product1, product2), pageRequest, true));
+        when(countEstimator.estimateAll()).thenReturn(5000L);
+
+        CountedSlice<ProductResponseDto> result = productServiceImpl.getAll(pageRequest, CountMode.ESTIMATED);
+
+        assertThat(result.countMode()).isEqualTo(CountMode.ESTIMATED);
+        assertThat(result.slice()).isInstanceOf(Page.class);
+        assertThat(((Page<ProductResponseDto>) result.slice()).getTotalElements()).isEqualTo(5000L);
+
+        verify(productRepository, never()).findAll(any(Pageable.class));
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    public void searchByName_countEstimatedWithoutPlanner_fallsBackToExact() {
+        Product product1 = new Product("Iphone 13", "descProduct1", new BigDecimal("100"), 1, "1");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(productRepository.findSliceByNameContainingIgnoreCase("iphone", pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(product1), pageRequest, false));
+        when(countEstimator.estimateByName("iphone")).thenReturn(OptionalLong.empty());
+        when(productRepository.countByNameContainingIgnoreCase("iphone")).thenReturn(1L);
+
+        CountedSlice<ProductResponseDto> result = productServiceImpl.searchByName(" iphone ", pageRequest, CountMode.ESTIMATED);
+
+        assertThat(result.countMode()).isEqualTo(CountMode.EXACT);
+        assertThat(((Page<ProductResponseDto>) result.slice()).getTotalElements()).isEqualTo(1L);
+    }
+
+    @Test
+    public void searchByName_countEstimatedWithoutPlannerOnPostgres_countsWithIlike() {
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(productRepository.findSliceByNameIlike("%iphone%", pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(), pageRequest, false));
+        when(countEstimator.estimateByName("iphone")).thenReturn(OptionalLong.empty());
+        when(productRepository.countByNameIlike("%iphone%")).thenReturn(0L);
+
+        CountedSlice<ProductResponseDto> result = productServiceImpl.searchByName("iphone", pageRequest, CountMode.ESTIMATED);
+
+        assertThat(result.countMode()).isEqualTo(CountMode.EXACT);
+        verify(productRepository, never()).countByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    public void countMode_invalidParam() {
+        assertThatThrownBy(() -> CountMode.fromParam("sometimes")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(CountMode.fromParam("Estimated")).isEqualTo(CountMode.ESTIMATED);
+    }
+
+    @Test
+    public void searchByName_onPostgres_usesTrigramPath() {
+        Product product1 = new Product("Iphone 13", "descProduct1", new BigDecimal("100"), 1, "1");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(productRepository.findAllByNameIlike("%10\\%\\_off%", pageRequest))
+                .thenReturn(new PageImpl<>(List.of(product1), pageRequest, 1));
+
+        Page<ProductResponseDto> result = productServiceImpl.searchByName("10%_off", pageRequest);
+
+        assertThat(result.getContent()).hasSize(1);
+        verify(productRepository, times(1)).findAllByNameIlike("%10\\%\\_off%", pageRequest);
+        verify(productRepository, never()).findAllByNameContainingIgnoreCase(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    public void searchByNameRanked_countNone_skipsCountQuery() {
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(productRepository.findSliceByNameOrderByLength("%iphone%", pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(), pageRequest, false));
+
+        CountedSlice<ProductResponseDto> result = productServiceImpl.searchByNameRanked("iphone", pageRequest, CountMode.NONE);
+
+        assertThat(result.countMode()).isEqualTo(CountMode.NONE);
+        verify(productRepository, never()).findAllByNameOrderByLength(anyString(), any(Pageable.class));
+        verify(productRepository, never()).countByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    public void searchByNameRanked_withSort_isRejected() {
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "name"));
+
+        assertThatThrownBy(() -> productServiceImpl.searchByNameRanked("iphone", pageRequest))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void searchByName_answeredFromNameIndex() {
+        Product product1 = new Product("Iphone 13", "descProduct1", new BigDecimal("100"), 1, "1");
+        Product product2 = new Product("Iphone 14", "descProduct2", new BigDecimal("200"), 2, "2");
+        ReflectionTestUtils.setField(product1, "id", 1L);
+        ReflectionTestUtils.setField(product2, "id", 2L);
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(nameIndex.canServe(pageRequest.getSort())).thenReturn(true);
+        when(nameIndex.search("iphone", pageRequest)).thenReturn(new ProductNameIndex.Hits(List.of(2L, 1L), 7));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(product1, product2));
+
+        Page<ProductResponseDto> result = productServiceImpl.searchByName("iphone", pageRequest);
+
+        assertThat(result.getContent()).extracting(ProductResponseDto::getId).containsExactly(2L, 1L);
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        verify(productRepository, times(1)).findAllById(List.of(2L, 1L));
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    public void getAll_summaryFieldsUseProjectionQuery() {
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price"));
+        ProductSummary summary = new ProductSummary(1L, "SKU-1", "Iphone 13", new BigDecimal("100"), 1, 0L);
+        when(productRepository.findSummariesBy(pageRequest)).thenReturn(new PageImpl<>(List.of(summary), pageRequest, 1));
+
+        CountedSlice<Map<String, Object>> result = productServiceImpl.getAll(pageRequest, CountMode.EXACT,
+                ProductFields.fromParam("sku, price,id"));
+
+        assertThat(result.slice().getContent()).containsExactly(
+                Map.of("id", 1L, "price", new BigDecimal("100"), "sku", "SKU-1"));
+        assertThat(result.slice().getContent().get(0).keySet()).containsExactly("id", "price", "sku");
+        verify(productRepository, times(1)).findSummariesBy(pageRequest);
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    public void searchByName_nonSummaryFieldsFallBackToEntities() {
+        Product product1 = new Product("Iphone 13", "descProduct1", new BigDecimal("100"), 1, "1");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(productRepository.findSliceByNameContainingIgnoreCase("iphone", pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(product1), pageRequest, false));
+
+        CountedSlice<Map<String, Object>> result = productServiceImpl.searchByName("iphone", pageRequest, CountMode.NONE,
+                ProductFields.fromParam("name,description"));
+
+        assertThat(result.slice().getContent()).containsExactly(Map.of("name", "Iphone 13", "description", "descProduct1"));
+        verify(productRepository, never()).findSummarySliceByNameContainingIgnoreCase(anyString(), any(Pageable.class));
+        assertThatThrownBy(() -> ProductFields.fromParam("id,weight")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void getAll_filteredListingRunsOneSpecificationQueryAndCountsExactly() {
+        Product product1 = new Product("Iphone 13", "descProduct1", new BigDecimal("100"), 1, "ab-1");
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("price"));
+        when(productRepository.findAll(ArgumentMatchers.<Specification<Product>>any(), eq(pageRequest)))
+                .thenReturn(new PageImpl<>(List.of(product1), pageRequest, 1));
+        ProductFilter filter = ProductFilter.fromParams(new BigDecimal("50"), new BigDecimal("150"), true,
+                null, null, " ab-");
+
+        CountedSlice<ProductResponseDto> result = productServiceImpl.getAll(filter, pageRequest, CountMode.ESTIMATED);
+
+        assertThat(filter.skuPrefix()).isEqualTo("AB-");
+        assertThat(result.countMode()).isEqualTo(CountMode.EXACT);
+        assertThat(result.slice().getContent()).extracting(ProductResponseDto::getSku).containsExactly("AB-1");
+        verify(productRepository, times(1)).findAll(ArgumentMatchers.<Specification<Product>>any(), eq(pageRequest));
+        verifyNoMoreInteractions(productRepository);
+        verifyNoInteractions(countEstimator);
+    }
+
+    @Test
+    public void getAll_filteredSummaryFieldsReadProjectionOnly() {
+        ProductSummary summary = new ProductSummary(1L, "SKU-1", "Iphone 13", new BigDecimal("100"), 1, 0L);
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(productRepository.findBy(ArgumentMatchers.<Specification<Product>>any(), any()))
+                .thenReturn(new PageImpl<>(List.of(summary), pageRequest, 1));
+        ProductFilter filter = ProductFilter.fromParams(new BigDecimal("50"), null, null, null, null, null);
+
+        CountedSlice<Map<String, Object>> result = productServiceImpl.getAll(filter, pageRequest, CountMode.EXACT,
+                ProductFields.fromParam("id,name"));
+
+        assertThat(result.slice().getContent()).containsExactly(Map.of("id", 1L, "name", "Iphone 13"));
+        verify(productRepository, never()).findAll(ArgumentMatchers.<Specification<Product>>any(), any(Pageable.class));
+    }
+
+    @Test
+    public void getAllByCursor_appliesFilterToKeysetScroll() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "price");
+        when(productRepository.findBy(ArgumentMatchers.<Specification<Product>>any(), any()))
+                .thenReturn(Window.from(List.<Product>of(), index -> ScrollPosition.keyset(), false));
+        ProductFilter filter = ProductFilter.fromParams(null, null, true, null, null, null);
+
+        CursorPageResponseDto<ProductResponseDto> page = productServiceImpl.getAllByCursor(filter, null, 2, sort);
+
+        assertThat(page.getContent()).isEmpty();
+        verify(productRepository, times(1)).findBy(ArgumentMatchers.<Specification<Product>>any(), any());
+        verify(productRepository, never()).findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+    }
+
+    @Test
+    public void getAll_filterValidation() {
+        assertThatThrownBy(() -> ProductFilter.fromParams(new BigDecimal("10"), new BigDecimal("5"), null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductFilter.fromParams(null, null, null,
+                Instant.parse("2025-02-01T00:00:00Z"), Instant.parse("2025-01-01T00:00:00Z"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductFilter.fromParams(null, null, null, null, null, "  "))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productServiceImpl.getAll(ProductFilter.fromParams(null, null, true, null, null, null),
+                PageRequest.of(0, 2, Sort.by("weight")), CountMode.NONE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(ProductFilter.fromParams(null, null, null, null, null, null).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void deleteById_publishesChangeEvent() {
+        Long id = 5L;
+        Product product = new Product("Product1", "desc", new BigDecimal("100.00"), 3, "1");
+        ReflectionTestUtils.setField(product, "id", id);
+        when(productRepository.findById(eq(id))).thenReturn(Optional.of(product));
+
+        productServiceImpl.deleteProduct(id);
+
+        ArgumentCaptor<ProductChangedEvent> captor = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().isDeleted()).isTrue();
+        assertThat(captor.getValue().productId()).isEqualTo(id);
+    }
+
+    @Test
+    public void getById_servedFromCache() {
+        ProductResponseDto cached = ProductResponseDto.builder().id(7L).name("Product1").version(3L).build();
+        when(productCache.get(7L)).thenReturn(cached);
+
+        ProductResponseDto productResponseDto = productServiceImpl.getById(7L);
+
+        assertThat(productResponseDto).isSameAs(cached);
+        verifyNoInteractions(productRepository);
+        verify(productMapper, never()).mapToProductResponseDto(any(Product.class));
+    }
+
+    @Test
+    public void getById_missLoadsAndCaches() {
+        Long id = 7L;
+        Product product = new Product("Product1", "desc", new BigDecimal("100.00"), 3, "1");
+        ReflectionTestUtils.setField(product, "id", id);
+        ReflectionTestUtils.setField(product, "version", 2L);
+        when(productRepository.findById(eq(id))).thenReturn(Optional.of(product));
+
+        productServiceImpl.getById(id);
+
+        ArgumentCaptor<ProductResponseDto> captor = ArgumentCaptor.forClass(ProductResponseDto.class);
+        verify(productCache).put(captor.capture());
+        assertThat(captor.getValue().getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    public void create_skipsSkuLookupWhenFilterRulesItOut() {
+        ProductCreateRequestDto productCreateRequestDto = createRequest("NEW-1");
+        when(skuFilter.isDefinitelyAbsent("NEW-1")).thenReturn(true);
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(inv -> inv.getArgument(0, Product.class));
+
+        productServiceImpl.createProduct(productCreateRequestDto);
+
+        verify(productRepository, times(1)).saveAndFlush(any(Product.class));
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    public void create_duplicateSkuFoundByLookup() {
+        ProductCreateRequestDto productCreateRequestDto = createRequest("dup-1");
+        when(productRepository.existsBySkuIgnoreCase("dup-1")).thenReturn(true);
+
+        assertThatThrownBy(() -> productServiceImpl.createProduct(productCreateRequestDto))
+                .isInstanceOf(DuplicateProductException.class);
+
+        verify(skuFilter).recordLookup(true);
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    @Test
+    public void create_uniqueViolationOnSkuIsReportedAsDuplicate() {
+        ProductCreateRequestDto productCreateRequestDto = createRequest("RACE-1");
+        when(skuFilter.isDefinitelyAbsent("RACE-1")).thenReturn(true);
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"product_sku_key\""));
+
+        assertThatThrownBy(() -> productServiceImpl.createProduct(productCreateRequestDto))
+                .isInstanceOf(DuplicateProductException.class);
+    }
+
+    @Test
+    public void create_checkViolationMentioningSkuIsNotReportedAsDuplicate() {
+        ProductCreateRequestDto productCreateRequestDto = createRequest("SKU-CHECK-1");
+        when(skuFilter.isDefinitelyAbsent("SKU-CHECK-1")).thenReturn(true);
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new ConstraintViolationException("new row violates check constraint",
+                                new SQLException("Failing row contains (1, Phone, null, -1.00, 1, SKU-CHECK-1)", "23514"),
+                                "product_price_check")));
+
+        assertThatThrownBy(() -> productServiceImpl.createProduct(productCreateRequestDto))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(DuplicateProductException.class);
+    }
+
+    @Test
+    public void createProducts_reportsEachItem() {
+        ProductCreateRequestDto invalid = createRequest("BAD-1");
+        invalid.setPrice(null);
+        List<ProductCreateRequestDto> batch = List.of(
+                createRequest("new-1"),
+                createRequest("NEW-1"),
+                invalid,
+                createRequest("old-1"),
+                createRequest("new-2"));
+        when(productRepository.findExistingSkus(anyCollection())).thenReturn(List.of("OLD-1"));
+
+        BatchCreateResponseDto response = productServiceImpl.createProducts(batch);
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getItems()).extracting(BatchItemResultDto::getStatus).containsExactly(
+                BatchItemStatus.CREATED, BatchItemStatus.FAILED, BatchItemStatus.FAILED, BatchItemStatus.FAILED, BatchItemStatus.CREATED);
+        assertThat(response.getItems()).extracting(BatchItemResultDto::getCode).containsExactly(
+                null, "UNIQUE_VIOLATION", "VALIDATION_ERROR", "UNIQUE_VIOLATION", null);
+        assertThat(response.getItems().get(2).getDetails()).containsKey("price");
+        assertThat(response.getItems().get(4).getProduct().getSku()).isEqualTo("NEW-2");
+
+        verify(productRepository).saveAll(productsCaptor.capture());
+        assertThat(productsCaptor.getValue()).extracting(Product::getSku).containsExactly("NEW-1", "NEW-2");
+        verify(productRepository).flush();
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    public void createProducts_tooLargeBatchIsRejected() {
+        List<ProductCreateRequestDto> batch = Stream.generate(() -> createRequest("SKU-1")).limit(1001).toList();
+
+        assertThatThrownBy(() -> productServiceImpl.createProducts(batch)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void adjustStock_returnsNewStockWithoutLoadingProduct() {
+        when(productRepository.adjustStock(eq(3L), eq(-2), any(Instant.class))).thenReturn(1);
+        when(productRepository.findStockById(3L)).thenReturn(Optional.of(stockView(3L, new BigDecimal("10.00"), 8, 4L)));
+
+        StockResponseDto stock = productServiceImpl.adjustStock(3L, -2);
+
+        assertThat(stock.getStock()).isEqualTo(8);
+        assertThat(stock.getVersion()).isEqualTo(4L);
+        verify(productRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(new ProductStockChangedEvent(3L, new BigDecimal("10.00"), 10, 8, 4L));
+    }
+
+    @Test
+    public void adjustStock_rejectsNegativeResult() {
+        when(productRepository.adjustStock(eq(3L), eq(-20), any(Instant.class))).thenReturn(0);
+        when(productRepository.existsById(3L)).thenReturn(true);
+
+        assertThatThrownBy(() -> productServiceImpl.adjustStock(3L, -20))
+                .isInstanceOf(InsufficientStockException.class)
+                .extracting("productIds").isEqualTo(List.of(3L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void adjustStock_rejectsStockPastIntRange() {
+        when(productRepository.adjustStock(eq(3L), eq(Integer.MAX_VALUE), any(Instant.class))).thenReturn(0);
+        when(productRepository.existsById(3L)).thenReturn(true);
+
+        assertThatThrownBy(() -> productServiceImpl.adjustStock(3L, Integer.MAX_VALUE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("stock out of range");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void adjustStock_unknownProduct() {
+        when(productRepository.adjustStock(eq(99L), eq(1), any(Instant.class))).thenReturn(0);
+        when(productRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> productServiceImpl.adjustStock(99L, 1)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void adjustStock_bulkMergesByIdAndReportsAllInsufficient() {
+        when(productRepository.adjustStock(eq(1L), eq(-3), any(Instant.class))).thenReturn(1);
+        when(productRepository.findStockById(1L)).thenReturn(Optional.of(stockView(1L, new BigDecimal("10.00"), 0, 2L)));
+        when(productRepository.adjustStock(eq(2L), eq(-5), any(Instant.class))).thenReturn(0);
+        when(productRepository.existsById(2L)).thenReturn(true);
+
+        assertThatThrownBy(() -> productServiceImpl.adjustStock(List.of(
+                        stockItem(2L, -5), stockItem(1L, -1), stockItem(1L, -2))))
+                .isInstanceOf(InsufficientStockException.class)
+                .extracting("productIds").isEqualTo(List.of(2L));
+
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).adjustStock(eq(1L), eq(-3), any(Instant.class));
+        inOrder.verify(productRepository).adjustStock(eq(2L), eq(-5), any(Instant.class));
+    }
+
+    @Test
+    public void updateById_staleIfMatchVersionFailsBeforeWriting() {
+        Long id = 5L;
+        Product product = new Product("Product1", "desc", new BigDecimal("100.00"), 3, "1");
+        ReflectionTestUtils.setField(product, "version", 4L);
+        when(productRepository.findById(eq(id))).thenReturn(Optional.of(product));
+
+        assertThatThrownBy(() -> productServiceImpl.updateProduct(id, new ProductUpdateRequestDto(), 3L))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    @Test
+    public void getVersionById_servedFromCacheOrVersionQuery() {
+        when(productCache.get(1L)).thenReturn(ProductResponseDto.builder().id(1L).version(6L).build());
+        when(productRepository.findVersionById(2L)).thenReturn(Optional.of(2L));
+
+        assertThat(productServiceImpl.getVersionById(1L)).isEqualTo(6L);
+        assertThat(productServiceImpl.getVersionById(2L)).isEqualTo(2L);
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    public void getPriceFacets_groupsMatchesInDatabaseWithoutLoadedAggregates() {
+        when(aggregates.totalsByName("phone")).thenReturn(new CatalogAggregates.Totals(2, 1, 3, new BigDecimal("30.00"),
+                List.of(new CatalogAggregates.PriceBucket(BigDecimal.ZERO, BigDecimal.TEN, 2))));
+
+        PriceFacetsDto facets = productServiceImpl.getPriceFacets(" phone ");
+
+        assertThat(facets.getQuery()).isEqualTo("phone");
+        assertThat(facets.getProducts()).isEqualTo(2);
+        assertThat(facets.getOutOfStock()).isEqualTo(1);
+        assertThat(facets.getPriceBuckets()).singleElement().extracting(PriceBucketDto::getCount).isEqualTo(2L);
+        verify(aggregates, never()).isReady();
+        verifyNoInteractions(productRepository, nameIndex);
+    }
+
+    @Test
+    public void getAggregates_unavailableUntilLoaded() {
+        when(aggregates.isReady()).thenReturn(false);
+
+        assertThatThrownBy(() -> productServiceImpl.getAggregates()).isInstanceOf(AggregatesNotReadyException.class);
+    }
+
+    private static StockAdjustmentItemDto stockItem(Long productId, int delta) {
+        StockAdjustmentItemDto item = new StockAdjustmentItemDto();
+        item.setProductId(productId);
+        item.setDelta(delta);
+        return item;
+    }
+
+    private static ProductStockView stockView(Long id, BigDecimal price, Integer stock, Long version) {
+        return new ProductStockView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return price;
+            }
+
+            @Override
+            public Integer getStock() {
+                return stock;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+
+    private static ProductCreateRequestDto createRequest(String sku) {
+        ProductCreateRequestDto productCreateRequestDto = new ProductCreateRequestDto();
+        productCreateRequestDto.setName("iphone 13");
+        productCreateRequestDto.setPrice(new BigDecimal("999.99"));
+        productCreateRequestDto.setStock(5);
+        productCreateRequestDto.setSku(sku);
+        return productCreateRequestDto;
+    }
 }
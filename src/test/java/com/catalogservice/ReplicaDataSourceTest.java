@@ -0,0 +1,67 @@
+package com.catalogservice;
+
+import com.catalogservice.config.replica.ReplicaDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaDataSourceTest {
+
+    @Mock
+    DataSource primary;
+    @Mock
+    DataSource healthy;
+    @Mock
+    DataSource broken;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void brokenReplicaIsSkippedUntilRetry() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(healthy.getConnection()).thenReturn(connection);
+        when(broken.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+        ReplicaDataSource dataSource = replicas(Map.of("replica-1", broken, "replica-2", healthy), Duration.ofMinutes(1));
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(dataSource.getConnection()).isSameAs(connection);
+        }
+
+        verify(broken, times(1)).getConnection();
+        assertThat(meterRegistry.get("datasource.replicas.healthy").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void readsFailOverToPrimaryWhenNoReplicaAnswers() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(connection);
+        when(broken.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+        ReplicaDataSource dataSource = replicas(Map.of("replica-1", broken), Duration.ZERO);
+
+        assertThat(dataSource.getConnection()).isSameAs(connection);
+        assertThat(dataSource.getConnection()).isSameAs(connection);
+
+        verify(broken, times(2)).getConnection();
+        assertThat(meterRegistry.get("datasource.reads").tag("reason", "replicas_unavailable").counter().count()).isEqualTo(2);
+    }
+
+    private ReplicaDataSource replicas(Map<String, DataSource> replicas, Duration retryAfter) {
+        return new ReplicaDataSource(primary, new LinkedHashMap<>(replicas), retryAfter, meterRegistry);
+    }
+}
@@ -0,0 +1,89 @@
+package com.catalogservice;
+
+import com.catalogservice.config.replica.ReadYourWritesFilter;
+import com.catalogservice.config.replica.ReplicaDataSource;
+import com.catalogservice.entity.Product;
+import com.catalogservice.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "catalog.datasource.replicas.enabled=true",
+        "catalog.datasource.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "catalog.datasource.replicas.read-your-writes-window=1m"})
+public class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ProductRepository productRepository;
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        replica.execute("CREATE TABLE IF NOT EXISTS roles (id SMALLINT PRIMARY KEY, name VARCHAR(32) NOT NULL UNIQUE)");
+        replica.execute("""
+                CREATE TABLE IF NOT EXISTS product (id BIGINT PRIMARY KEY, name VARCHAR(120) NOT NULL, description VARCHAR(1000),
+                price NUMERIC(12, 2) NOT NULL, stock INTEGER NOT NULL, created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                updated_at TIMESTAMP WITH TIME ZONE NOT NULL, version BIGINT NOT NULL, sku VARCHAR(32) NOT NULL UNIQUE)""");
+    }
+
+    @Test
+    public void readsGoToReplicaExceptForRecentWriter() throws Exception {
+        Product product = productRepository.save(new Product("Router", null, new BigDecimal("10.00"), 1, "ROUTE-1"));
+        replica.update("INSERT INTO product VALUES (?, 'Router', NULL, 10.00, 1, now(), now(), 0, 'ROUTE-1')", product.getId());
+
+        Cookie lastWrite = mockMvc.perform(patch("/api/v1/products/" + product.getId() + "/stock")
+                        .contentType("application/json")
+                        .content("{\"delta\":5}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE);
+
+        mockMvc.perform(get("/api/v1/products?skuPrefix=ROUTE-"))
+                .andExpect(jsonPath("$.content[0].stock").value(1))
+                .andExpect(header().doesNotExist("ETag"));
+        mockMvc.perform(get("/api/v1/products?skuPrefix=ROUTE-").cookie(lastWrite))
+                .andExpect(jsonPath("$.content[0].stock").value(6))
+                .andExpect(header().exists("ETag"));
+        mockMvc.perform(get("/api/v1/products?skuPrefix=ROUTE-")
+                        .header(ReadYourWritesFilter.LAST_WRITE_HEADER, lastWrite.getValue()))
+                .andExpect(jsonPath("$.content[0].stock").value(6));
+        mockMvc.perform(get("/api/v1/products?skuPrefix=ROUTE-")
+                        .header(ReadYourWritesFilter.LAST_WRITE_HEADER, Long.parseLong(lastWrite.getValue()) - 120_000))
+                .andExpect(jsonPath("$.content[0].stock").value(1));
+    }
+
+    @Test
+    public void explicitCredentialsAreRoutedToReplica() throws Exception {
+        try (ReplicaDataSource dataSource = new ReplicaDataSource(new DriverManagerDataSource("jdbc:h2:mem:routing-primary"),
+                Map.of("replica", new DriverManagerDataSource(REPLICA_URL)), Duration.ofSeconds(1), new SimpleMeterRegistry());
+             Connection connection = dataSource.getConnection("sa", "")) {
+            assertThat(connection.getMetaData().getURL()).startsWith("jdbc:h2:mem:routing-replica");
+        }
+    }
+}
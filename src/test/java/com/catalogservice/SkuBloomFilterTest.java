@@ -0,0 +1,105 @@
+package com.catalogservice;
+
+import com.catalogservice.event.ProductChangedEvent;
+import com.catalogservice.event.ProductSnapshot;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.repository.ProductSkuView;
+import com.catalogservice.service.sku.SkuBloomFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SkuBloomFilterTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void beforeSeeding_nothingIsRuledOut() {
+        SkuBloomFilter filter = new SkuBloomFilter(productRepository, true, 1000, 0.01, 100, meterRegistry);
+
+        assertThat(filter.isDefinitelyAbsent("NEW-1")).isFalse();
+    }
+
+    @Test
+    public void seededSkusAreNeverRuledOutIgnoringCase() {
+        List<ProductSkuView> rows = IntStream.rangeClosed(1, 500).mapToObj(i -> view((long) i, "SKU-" + i)).toList();
+        SkuBloomFilter filter = loadedFilter(rows);
+
+        for (int i = 1; i <= 500; i++) {
+            assertThat(filter.isDefinitelyAbsent("sku-" + i)).isFalse();
+        }
+        long ruledOut = IntStream.rangeClosed(1, 1000).filter(i -> filter.isDefinitelyAbsent("OTHER-" + i)).count();
+        assertThat(ruledOut).isGreaterThan(950);
+        assertThat(meterRegistry.get("sku.filter.memory").gauge().value()).isPositive();
+    }
+
+    @Test
+    public void createdSkusAreAddedAndDeletedOnesRemoved() {
+        SkuBloomFilter filter = loadedFilter(List.of(view(1L, "SKU-1")));
+
+        filter.onProductChanged(ProductChangedEvent.created(snapshot(2L, "SKU-2")));
+        assertThat(filter.isDefinitelyAbsent("sku-2")).isFalse();
+
+        filter.onProductChanged(ProductChangedEvent.deleted(snapshot(2L, "SKU-2")));
+        assertThat(filter.isDefinitelyAbsent("SKU-2")).isTrue();
+        assertThat(filter.isDefinitelyAbsent("SKU-1")).isFalse();
+    }
+
+    @Test
+    public void falsePositiveRateIsObservedFromLookups() {
+        SkuBloomFilter filter = loadedFilter(List.of(view(1L, "SKU-1")));
+
+        filter.isDefinitelyAbsent("NEW-1");
+        filter.isDefinitelyAbsent("NEW-2");
+        filter.isDefinitelyAbsent("NEW-3");
+        filter.recordLookup(false);
+
+        assertThat(meterRegistry.get("sku.filter.false.positive.rate").gauge().value()).isEqualTo(0.25);
+    }
+
+    private SkuBloomFilter loadedFilter(List<ProductSkuView> rows) {
+        when(productRepository.count()).thenReturn((long) rows.size());
+        when(productRepository.findSkusByIdGreaterThan(eq(0L), any(Limit.class))).thenReturn(rows);
+        when(productRepository.findSkusByIdGreaterThan(eq(rows.get(rows.size() - 1).getId()), any(Limit.class))).thenReturn(List.of());
+        SkuBloomFilter filter = new SkuBloomFilter(productRepository, true, 1000, 0.01, 1000, meterRegistry);
+        filter.startLoading();
+        await().atMost(Duration.ofSeconds(5)).until(filter::isReady);
+        return filter;
+    }
+
+    private static ProductSnapshot snapshot(Long id, String sku) {
+        return new ProductSnapshot(id, "Product" + id, sku, new BigDecimal("10.00"), 1, 0L);
+    }
+
+    private static ProductSkuView view(Long id, String sku) {
+        return new ProductSkuView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSku() {
+                return sku;
+            }
+        };
+    }
+}
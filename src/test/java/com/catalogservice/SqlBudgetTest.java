@@ -0,0 +1,140 @@
+package com.catalogservice;
+
+import com.catalogservice.config.sql.SqlStatistics;
+import com.catalogservice.entity.Product;
+import com.catalogservice.entity.Role;
+import com.catalogservice.entity.User;
+import com.catalogservice.repository.ProductRepository;
+import com.catalogservice.repository.RoleRepository;
+import com.catalogservice.repository.UserRepository;
+import com.catalogservice.security.PasswordHasher;
+import com.catalogservice.service.aggregate.CatalogAggregates;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"spring.flyway.enabled=false"})
+public class SqlBudgetTest {
+    private static final Duration HASHING_DELAY = Duration.ofMillis(500);
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    RoleRepository roleRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    PasswordEncoder passwordEncoder;
+    @Autowired
+    CatalogAggregates catalogAggregates;
+    @MockitoSpyBean
+    PasswordHasher passwordHasher;
+
+    @Test
+    public void getProduct_loadsOnceThenServesFromCache() throws Exception {
+        Product product = productRepository.save(new Product("Phone", null, new BigDecimal("10.00"), 1, "SQL-GET-1"));
+
+        try (SqlStatistics sql = SqlStatistics.start()) {
+            mockMvc.perform(get("/api/v1/products/" + product.getId())).andExpect(status().isOk());
+            assertThat(sql.statements()).isEqualTo(1);
+            assertThat(sql.connections()).isEqualTo(1);
+        }
+        try (SqlStatistics sql = SqlStatistics.start()) {
+            mockMvc.perform(get("/api/v1/products/" + product.getId())).andExpect(status().isOk());
+            assertThat(sql.statements()).isZero();
+        }
+    }
+
+    @Test
+    public void deleteProduct_selectsOnceAndDeletes() throws Exception {
+        Product product = productRepository.save(new Product("Tablet", null, new BigDecimal("20.00"), 1, "SQL-DELETE-1"));
+
+        try (SqlStatistics sql = SqlStatistics.start()) {
+            mockMvc.perform(delete("/api/v1/products/" + product.getId())).andExpect(status().isNoContent());
+            assertThat(sql.statements()).isEqualTo(2);
+            assertThat(sql.maxRepeats()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void aggregates_servedWithoutConnection() throws Exception {
+        await().atMost(Duration.ofSeconds(10)).until(catalogAggregates::isReady);
+
+        try (SqlStatistics sql = SqlStatistics.start()) {
+            mockMvc.perform(get("/api/v1/products/aggregates")).andExpect(status().isOk());
+            assertThat(sql.connections()).isZero();
+        }
+    }
+
+    @Test
+    public void login_loadsUserWithRolesInOneStatement() throws Exception {
+        Role role = roleRepository.findByName("ROLE_SQL").orElseGet(() -> roleRepository.save(new Role("ROLE_SQL")));
+        User user = new User("sql@example.com", "sql-user", passwordEncoder.encode("sqlPassword1"), true);
+        user.addRole(role);
+        userRepository.save(user);
+
+        try (SqlStatistics sql = SqlStatistics.start()) {
+            mockMvc.perform(post("/auth/login")
+                            .contentType("application/json")
+                            .content("{\"email\":\"sql@example.com\",\"password\":\"sqlPassword1\"}"))
+                    .andExpect(status().isOk());
+            assertThat(sql.statements()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void login_releasesConnectionBeforeCheckingPassword() throws Exception {
+        User user = new User("slow-hash@example.com", "slow-hash-user", passwordEncoder.encode("slowPassword1"), true);
+        user.addRole(roleRepository.findByName("ROLE_SQL").orElseGet(() -> roleRepository.save(new Role("ROLE_SQL"))));
+        userRepository.save(user);
+        doAnswer(invocation -> {
+            Thread.sleep(HASHING_DELAY.toMillis());
+            return invocation.callRealMethod();
+        }).when(passwordHasher).matches(any(), any());
+
+        try (SqlStatistics sql = SqlStatistics.start()) {
+            mockMvc.perform(post("/auth/login")
+                            .contentType("application/json")
+                            .content("{\"email\":\"slow-hash@example.com\",\"password\":\"slowPassword1\"}"))
+                    .andExpect(status().isOk());
+            assertThat(sql.connections()).isEqualTo(1);
+            assertThat(sql.connectionHold()).isLessThan(HASHING_DELAY);
+        }
+    }
+
+    @Test
+    public void register_releasesConnectionBeforeHashingPassword() throws Exception {
+        roleRepository.findByName("ROLE_USER").orElseGet(() -> roleRepository.save(new Role("ROLE_USER")));
+        doAnswer(invocation -> {
+            Thread.sleep(HASHING_DELAY.toMillis());
+            return invocation.callRealMethod();
+        }).when(passwordHasher).encode(any());
+
+        try (SqlStatistics sql = SqlStatistics.start()) {
+            mockMvc.perform(post("/auth/register")
+                            .contentType("application/json")
+                            .content("{\"email\":\"slow-register@example.com\",\"username\":\"slowRegister\",\"password\":\"slowPassword1\"}"))
+                    .andExpect(status().isCreated());
+            assertThat(sql.connectionHold()).isLessThan(HASHING_DELAY);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.catalogservice;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and p99 latency of the product list, product search and login endpoints with Tomcat on
+ * platform threads and on virtual threads ({@code spring.threads.virtual.enabled}), against PostgreSQL.
+ * The last row per mode measures the list endpoint while logins run at full load in parallel.
+ * The virtual mode needs a Java 21 runtime and is skipped otherwise.
+ * Run with: {@code mvn test -Pjava21 -Dtest=ThreadModeBenchmark -Dbenchmark=true [-Dbenchmark.clients=400] [-Dbenchmark.seconds=20]}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ThreadModeBenchmark {
+    private static final int PRODUCTS = 200_000;
+    private static final String EMAIL = "bench@example.com";
+    private static final String PASSWORD = "benchPassword1";
+
+    @Test
+    void throughputByThreadMode() throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 400);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 20));
+        List<Scenario> scenarios = List.of(
+                new Scenario("list", "GET", "/api/v1/products?size=20&sort=price,desc", null),
+                new Scenario("search", "GET", "/api/v1/products/search?query=pro&size=20&count=none", null),
+                new Scenario("login", "POST", "/auth/login",
+                        "{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"));
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")) {
+            postgres.start();
+            Flyway.configure()
+                    .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                    .load()
+                    .migrate();
+            load(postgres);
+
+            List<String> report = new ArrayList<>();
+            report.add(String.format("%-10s %-8s %8s %12s %10s %8s", "mode", "endpoint", "clients", "req/s", "p99 ms", "errors"));
+            for (boolean virtual : new boolean[]{false, true}) {
+                if(virtual && Runtime.version().feature() < 21) {
+                    report.add("virtual    skipped: needs a Java 21 runtime");
+                    continue;
+                }
+                try (ConfigurableApplicationContext context = start(postgres, virtual)) {
+                    String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+                    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+                    send(client, baseUrl, new Scenario("register", "POST", "/auth/register",
+                            "{\"email\":\"" + EMAIL + "\",\"username\":\"bench\",\"password\":\"" + PASSWORD + "\"}"));
+                    for (Scenario scenario : scenarios) {
+                        run(client, baseUrl, scenario, clients, Duration.ofSeconds(5));
+                        Result result = run(client, baseUrl, scenario, clients, duration);
+                        report.add(String.format("%-10s %-8s %8d %12.1f %10.2f %8d", virtual ? "virtual" : "platform",
+                                scenario.name(), clients, result.throughput(), result.p99Millis(), result.errors()));
+                    }
+                    // product reads while a login storm saturates the password hashing pool
+                    CompletableFuture<Result> storm = CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return run(client, baseUrl, scenarios.get(2), clients, duration);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                    Result result = run(client, baseUrl, scenarios.get(0), clients / 4, duration);
+                    storm.join();
+                    report.add(String.format("%-10s %-8s %8d %12.1f %10.2f %8d", virtual ? "virtual" : "platform",
+                            "list+login", clients / 4, result.throughput(), result.p99Millis(), result.errors()));
+                }
+            }
+            report.forEach(System.out::println);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(PostgreSQLContainer<?> postgres, boolean virtual) {
+        return new SpringApplicationBuilder(CatalogServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "catalog.rate-limit.enabled=false",
+                        "logging.level.com.catalogservice=WARN")
+                .run();
+    }
+
+    private static void load(PostgreSQLContainer<?> postgres) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO product (name, description, price, stock, created_at, updated_at, version, sku)
+                    SELECT (ARRAY['Phone','Laptop','Tablet','Watch'])[1 + g % 4]
+                               || ' ' || (ARRAY['Pro','Max','Mini','Air'])[1 + (g / 4) % 4] || ' ' || g,
+                           'benchmark row', 1 + (g % 5000), g % 50, now(), now(), 0, 'BENCH-' || g
+                    FROM generate_series(1, %d) AS g
+                    """.formatted(PRODUCTS));
+            statement.execute("ANALYZE product");
+        }
+    }
+
+    private static Result run(HttpClient client, String baseUrl, Scenario scenario, int clients, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<long[]>> workers = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    long errors = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        boolean ok = send(client, baseUrl, scenario);
+                        if(!ok) {
+                            errors++;
+                            continue;
+                        }
+                        if(count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    long[] result = Arrays.copyOf(samples, count + 1);
+                    result[count] = errors;
+                    return result;
+                }));
+            }
+            List<Long> latencies = new ArrayList<>();
+            long errors = 0;
+            for (Future<long[]> worker : workers) {
+                long[] samples = worker.get();
+                for (int i = 0; i < samples.length - 1; i++) {
+                    latencies.add(samples[i]);
+                }
+                errors += samples[samples.length - 1];
+            }
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double seconds = duration.toNanos() / 1_000_000_000.0;
+            double p99 = sorted.length == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(0.99 * sorted.length) - 1)] / 1_000_000.0;
+            return new Result(sorted.length / seconds, p99, errors);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static boolean send(HttpClient client, String baseUrl, Scenario scenario) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + scenario.path()))
+                .timeout(Duration.ofSeconds(30));
+        if(scenario.body() == null) {
+            request.GET();
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(scenario.method(), HttpRequest.BodyPublishers.ofString(scenario.body()));
+        }
+        try {
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private record Scenario(String name, String method, String path, String body) {
+    }
+
+    private record Result(double throughput, double p99Millis, long errors) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.catalogservice;
+
+import com.catalogservice.exceptions.InvalidCredentialsException;
+import com.catalogservice.exceptions.PasswordHashingBusyException;
+import com.catalogservice.exceptions.RateLimitedException;
+import com.catalogservice.security.ratelimit.RequestRateLimiter;
+import com.catalogservice.security.ratelimit.TokenBucketLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TokenBucketLimiterTest {
+
+    @Test
+    public void tryAcquire_allowsBurstThenRefillsOneTokenPerPeriod() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(1), 1024, clock::get);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(Duration.ofSeconds(1).toNanos());
+        assertThat(limiter.tryAcquire("10.0.0.2")).isZero();
+
+        clock.addAndGet(Duration.ofMillis(1500).toNanos());
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(Duration.ofMillis(500).toNanos());
+    }
+
+    @Test
+    public void refund_returnsReservedTokenWithoutExceedingCapacity() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(10), 1024, clock::get);
+
+        limiter.refund("user@example.com");
+        limiter.refund("user@example.com");
+        assertThat(limiter.tryAcquire("user@example.com")).isZero();
+        assertThat(limiter.tryAcquire("user@example.com")).isZero();
+        assertThat(limiter.tryAcquire("user@example.com")).isEqualTo(Duration.ofSeconds(10).toNanos());
+
+        limiter.refund("user@example.com");
+        assertThat(limiter.tryAcquire("user@example.com")).isZero();
+        assertThat(limiter.tryAcquire("user@example.com")).isEqualTo(Duration.ofSeconds(10).toNanos());
+    }
+
+    @Test
+    public void acquireLogin_reservesAttemptsSoConcurrentFailuresCannotExceedCapacity() {
+        RequestRateLimiter limiter = new RequestRateLimiter(true, 1024, 100, Duration.ofSeconds(1),
+                3, Duration.ofMinutes(1), 1, Duration.ofSeconds(1), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquireLogin("10.0.0.1", "user@example.com");
+        }
+        assertThatThrownBy(() -> limiter.acquireLogin("10.0.0.2", "User@Example.com"))
+                .isInstanceOf(RateLimitedException.class);
+
+        limiter.refundLogin("10.0.0.1", "user@example.com");
+        limiter.acquireLogin("10.0.0.3", "user@example.com");
+    }
+
+    @Test
+    public void attemptLogin_countsOnlyCredentialFailures() {
+        RequestRateLimiter limiter = new RequestRateLimiter(true, 1024, 100, Duration.ofSeconds(1),
+                2, Duration.ofMinutes(1), 1, Duration.ofSeconds(1), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> limiter.attemptLogin("10.0.0.1", "user@example.com", () -> {
+                throw new PasswordHashingBusyException("Password hashing capacity exceeded", 1);
+            })).isInstanceOf(PasswordHashingBusyException.class);
+        }
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> limiter.attemptLogin("10.0.0.1", "user@example.com", () -> {
+                throw new InvalidCredentialsException("Invalid credentials");
+            })).isInstanceOf(InvalidCredentialsException.class);
+        }
+        assertThatThrownBy(() -> limiter.attemptLogin("10.0.0.1", "user@example.com", () -> "ok"))
+                .isInstanceOf(RateLimitedException.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.catalogservice;
+
+import com.catalogservice.entity.Role;
+import com.catalogservice.entity.User;
+import com.catalogservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {"spring.flyway.enabled=false", "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class UserRepoTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void findWithRolesByEmail_loadsUserAndRolesInOneStatement() {
+        Role userRole = new Role("ROLE_USER");
+        Role adminRole = new Role("ROLE_ADMIN");
+        entityManager.persist(userRole);
+        entityManager.persist(adminRole);
+        User user = new User("Someone@Example.com", "someone", "$2a$10$" + "x".repeat(53), true);
+        user.addRole(userRole);
+        user.addRole(adminRole);
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Optional<User> found = userRepository.findWithRolesByEmail("someone@example.com");
+
+        assertThat(found).isPresent();
+        assertThat(found.get().getRoles()).extracting(Role::getName).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}